@@ -0,0 +1,151 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+/**
+ * A Count-Min sketch: estimates how many times each string has been added, in
+ * fixed memory of depth rows of width counters. An estimate is never below
+ * the true count, and with probability at least 1 - e^-depth it exceeds the
+ * true count by at most (e / width) * totalCount(). forError() picks the
+ * dimensions for a given error bound.
+ *
+ * Sketches of equal dimensions can be merged, so counts over a stream split
+ * over several shards are the estimates of their merged sketches.
+ *
+ * Not safe for concurrent use.
+ */
+public class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final long[] counters;
+    private long totalCount = 0;
+    /*
+     * Abstraction function:
+     *   represents a multiset of 64-bit hashes, in which counters[row * width + c]
+     *   is the total count of the hashes h added with column(h, row) == c
+     * Rep invariant:
+     *   counters.length == width * depth
+     *   each row of counters sums to totalCount
+     */
+
+    /**
+     * Make an empty sketch.
+     *
+     * @param width counters per row, positive
+     * @param depth number of rows, positive
+     */
+    public CountMinSketch(int width, int depth) {
+        if (width <= 0 || depth <= 0 || (long) width * depth > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("bad dimensions " + width + " x " + depth);
+        }
+        this.width = width;
+        this.depth = depth;
+        this.counters = new long[width * depth];
+    }
+
+    /**
+     * Make an empty sketch whose estimates exceed the true count by at most
+     * epsilon * totalCount() with probability at least 1 - delta.
+     *
+     * @param epsilon additive error as a fraction of the total count, in (0, 1)
+     * @param delta probability of exceeding the error bound, in (0, 1)
+     * @return a sketch of width ceil(e / epsilon) and depth ceil(ln(1 / delta))
+     */
+    public static CountMinSketch forError(double epsilon, double delta) {
+        if (!(epsilon > 0 && epsilon < 1) || !(delta > 0 && delta < 1)) {
+            throw new IllegalArgumentException("epsilon " + epsilon + ", delta " + delta + " not in (0, 1)");
+        }
+        return new CountMinSketch((int) Math.ceil(Math.E / epsilon),
+                (int) Math.ceil(Math.log(1 / delta)));
+    }
+
+    /**
+     * @return counters per row
+     */
+    public int width() {
+        return width;
+    }
+
+    /**
+     * @return number of rows
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * @return total of all counts added
+     */
+    public long totalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @param value string to count
+     * @param count number of times to count it, nonnegative
+     */
+    public void add(String value, long count) {
+        addHash(Hashing.hash(value), count);
+    }
+
+    /**
+     * @param hash a hash from Hashing
+     * @param count number of times to count it, nonnegative
+     */
+    void addHash(long hash, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("negative count " + count);
+        }
+        for (int row = 0; row < depth; row++) {
+            counters[row * width + column(hash, row)] += count;
+        }
+        totalCount += count;
+    }
+
+    /**
+     * @param value a string
+     * @return estimated number of times value has been added
+     */
+    public long estimate(String value) {
+        return estimateHash(Hashing.hash(value));
+    }
+
+    /**
+     * @param hash a hash from Hashing
+     * @return estimated count of hash
+     */
+    long estimateHash(long hash) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters[row * width + column(hash, row)]);
+        }
+        return min;
+    }
+
+    /*
+     * Column of hash in a row; rows use the independent-enough family
+     * h1 + row * h2 built from the two halves of the hash.
+     */
+    private int column(long hash, int row) {
+        int combined = (int) hash + row * (int) (hash >>> 32);
+        return (combined & Integer.MAX_VALUE) % width;
+    }
+
+    /**
+     * Add all counts in another sketch to this one.
+     *
+     * @param that a sketch with the same width and depth, not modified
+     */
+    public void merge(CountMinSketch that) {
+        if (that.width != width || that.depth != depth) {
+            throw new IllegalArgumentException("dimensions " + that.width + " x " + that.depth
+                    + " != " + width + " x " + depth);
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += that.counters[i];
+        }
+        totalCount += that.totalCount;
+    }
+}
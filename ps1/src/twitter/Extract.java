@@ -6,9 +6,8 @@ package twitter;
 import java.time.Instant;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
-import java.util.regex.Pattern;
-import java.util.regex.Matcher;
 
 
 /**
@@ -65,13 +64,15 @@ public class Extract {
      */
     public static Set<String> getMentionedUsers(List<Tweet> tweets) {
         Set<String> mentioned = new HashSet<>();
-        Pattern pattern = Pattern.compile("(?<=^|[^A-Za-z0-9_-])@([A-Za-z0-9_-]+)(?=[^A-Za-z0-9_-]|$)");
+        TweetTokenizer.Handler collect = new TweetTokenizer.Handler() {
+            @Override public boolean mention(String text, int start, int end) {
+                mentioned.add(text.substring(start, end).toLowerCase(Locale.ROOT));
+                return true;
+            }
+        };
 
         for (Tweet tweet : tweets) {
-            Matcher matcher = pattern.matcher(tweet.getText());
-            while (matcher.find()) {
-                mentioned.add(matcher.group(1).toLowerCase());
-            }
+            TweetTokenizer.tokenize(tweet.getText(), collect);
         }
         return mentioned;
     }
@@ -7,6 +7,8 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * Filter consists of methods that filter a list of tweets for those matching a
@@ -18,6 +20,12 @@ import java.util.Locale;
  */
 public class Filter {
 
+    /*
+     * containing() compiles word lists longer than this into a KeywordMatcher,
+     * whose per-tweet cost does not grow with the number of words.
+     */
+    private static final int MATCHER_THRESHOLD = 8;
+
     /**
      * Find tweets written by a particular user.
      * 
@@ -31,15 +39,35 @@ public class Filter {
      *         in the same order as in the input list.
      */
     public static List<Tweet> writtenBy(List<Tweet> tweets, String username) {
-        List<Tweet> result = new ArrayList<>();
-        String target = username.toLowerCase(Locale.ROOT);
+        return collect(tweets, isWrittenBy(username));
+    }
 
-        for (Tweet tweet : tweets) {
-            if (tweet.getAuthor().toLowerCase(Locale.ROOT).equals(target)) {
-                result.add(tweet);
-            }
-        }
-        return result;
+    /**
+     * Lazily find tweets written by a particular user.
+     * 
+     * @param tweets
+     *                 a stream of tweets with distinct ids
+     * @param username
+     *                 Twitter username, required to be a valid Twitter username as
+     *                 defined by Tweet.getAuthor()'s spec.
+     * @return a stream of all and only the tweets in the input stream whose
+     *         author is username, in the same order. Nothing is evaluated
+     *         until a terminal operation runs, and chained filters run in a
+     *         single pass.
+     */
+    public static Stream<Tweet> writtenBy(Stream<Tweet> tweets, String username) {
+        return tweets.filter(isWrittenBy(username));
+    }
+
+    /**
+     * @param username
+     *                 Twitter username, required to be a valid Twitter username as
+     *                 defined by Tweet.getAuthor()'s spec.
+     * @return a predicate true of exactly the tweets writtenBy() keeps
+     */
+    public static Predicate<Tweet> isWrittenBy(String username) {
+        String target = username.toLowerCase(Locale.ROOT);
+        return tweet -> tweet.getAuthor().equalsIgnoreCase(target);
     }
 
     /**
@@ -54,20 +82,35 @@ public class Filter {
      *         timespan,
      *         in the same order as in the input list.
      */
-    // Does not consider inclusivity 
     public static List<Tweet> inTimespan(List<Tweet> tweets, Timespan timespan) {
-        List<Tweet> result = new ArrayList<>();
+        return collect(tweets, isInTimespan(timespan));
+    }
+
+    /**
+     * Lazily find tweets that were sent during a particular timespan.
+     * 
+     * @param tweets
+     *                 a stream of tweets with distinct ids
+     * @param timespan
+     *                 timespan
+     * @return a stream of all and only the tweets in the input stream that
+     *         were sent during the timespan, in the same order, evaluated
+     *         lazily as by writtenBy(Stream, String).
+     */
+    public static Stream<Tweet> inTimespan(Stream<Tweet> tweets, Timespan timespan) {
+        return tweets.filter(isInTimespan(timespan));
+    }
+
+    /**
+     * @param timespan
+     *                 timespan
+     * @return a predicate true of exactly the tweets inTimespan() keeps
+     */
+    public static Predicate<Tweet> isInTimespan(Timespan timespan) {
         Instant start = timespan.getStart();
         Instant end = timespan.getEnd();
-
-        for (Tweet tweet : tweets) {
-            Instant timestamp = tweet.getTimestamp();
-            if ((timestamp.isAfter(start)) &&
-                    (timestamp.isBefore(end))) {
-                result.add(tweet);
-            }
-        }
-        return result;
+        // the timespan includes its endpoints
+        return tweet -> !tweet.getTimestamp().isBefore(start) && !tweet.getTimestamp().isAfter(end);
     }
 
     /**
@@ -88,31 +131,68 @@ public class Filter {
      *         same order as in the input list.
      */
     public static List<Tweet> containing(List<Tweet> tweets, List<String> words) {
-        List<Tweet> result = new ArrayList<>();
+        return collect(tweets, isContaining(words));
+    }
+
+    /**
+     * Lazily find tweets that contain certain words.
+     * 
+     * @param tweets
+     *               a stream of tweets with distinct ids
+     * @param words
+     *               a list of words to search for in the tweets, as for
+     *               containing(List, List).
+     * @return a stream of all and only the tweets in the input stream that
+     *         include at least one of the words, in the same order,
+     *         evaluated lazily as by writtenBy(Stream, String).
+     */
+    public static Stream<Tweet> containing(Stream<Tweet> tweets, List<String> words) {
+        return tweets.filter(isContaining(words));
+    }
+
+    /**
+     * @param words
+     *               a list of words to search for in the tweets, as for
+     *               containing(List, List).
+     * @return a predicate true of exactly the tweets containing() keeps. It
+     *         is safe to use from multiple threads.
+     */
+    public static Predicate<Tweet> isContaining(List<String> words) {
+        if (words.size() > MATCHER_THRESHOLD) {
+            KeywordMatcher matcher = KeywordMatcher.compile(words);
+            return tweet -> matcher.matches(tweet.getText());
+        }
 
         // Preprocess words to lowercase for case-insensitive matching
         List<String> lowerWords = new ArrayList<>();
         for (String word : words) {
-            lowerWords.add(word.toLowerCase(Locale.ROOT));
+            lowerWords.add(TweetTokenizer.lowerCase(word));
         }
 
-        for (Tweet tweet : tweets) {
-            String[] tweetWords = tweet.getText().toLowerCase(Locale.ROOT).split("\\s+");
-            boolean found = false;
-            for (String tw : tweetWords) {
+        // Stops the scan at the first tweet word found in lowerWords
+        TweetTokenizer.Handler findWord = new TweetTokenizer.Handler() {
+            @Override public boolean word(String text, int start, int end) {
                 for (String w : lowerWords) {
-                    if (tw.equals(w)) {
-                        found = true;
-                        break;
+                    if (TweetTokenizer.regionEqualsLowerCase(text, start, end, w)) {
+                        return false;
                     }
                 }
-                if (found)
-                    break;
+                return true;
             }
-            if (found)
+        };
+        return tweet -> !TweetTokenizer.tokenize(tweet.getText(), findWord);
+    }
+
+    /*
+     * @return the tweets matching a predicate, in list order
+     */
+    private static List<Tweet> collect(List<Tweet> tweets, Predicate<Tweet> predicate) {
+        List<Tweet> result = new ArrayList<>();
+        for (Tweet tweet : tweets) {
+            if (predicate.test(tweet)) {
                 result.add(tweet);
+            }
         }
-
         return result;
     }
 
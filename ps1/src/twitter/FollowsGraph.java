@@ -0,0 +1,298 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable, compact social network, as defined by SocialNetwork, in
+ * compressed sparse row form. Each username is encoded once as an int id in
+ * [0, userCount()); edges are stored as int arrays of neighbor ids, sorted,
+ * grouped by user and delimited by an offset array, once for the users each
+ * user follows and once for each user's followers. Degrees are O(1).
+ *
+ * Usernames are taken exactly as given; callers that want "ernie" and "ERNie"
+ * to be the same user should lowercase them first, as guessFollowsGraph does.
+ *
+ * Use fromMap() and toMap() to convert from and to the Map<String, Set<String>>
+ * form used by SocialNetwork, or a Builder to make one from edges directly.
+ */
+public class FollowsGraph {
+
+    private final String[] usernames;
+    private final Map<String, Integer> ids;
+    private final int[] followingOffsets;
+    private final int[] following;
+    private final int[] followerOffsets;
+    private final int[] followers;
+    /*
+     * Abstraction function:
+     *   represents the social network on users usernames[0..n), n = usernames.length,
+     *   in which usernames[u] follows usernames[v] for each v in
+     *   following[followingOffsets[u], followingOffsets[u+1])
+     * Rep invariant:
+     *   ids maps usernames[u] to u for every u < n
+     *   followingOffsets and followerOffsets have length n + 1, start at 0,
+     *   are nondecreasing, and end at following.length == followers.length
+     *   each user's range of following (and of followers) is strictly
+     *   ascending and does not contain the user itself
+     *   v is in u's following range iff u is in v's followers range
+     */
+
+    private FollowsGraph(String[] usernames, Map<String, Integer> ids, int[] followingOffsets,
+            int[] following, int[] followerOffsets, int[] followers) {
+        this.usernames = usernames;
+        this.ids = ids;
+        this.followingOffsets = followingOffsets;
+        this.following = following;
+        this.followerOffsets = followerOffsets;
+        this.followers = followers;
+    }
+
+    /**
+     * Convert a social network from the form used by SocialNetwork.
+     *
+     * @param followsGraph a social network, as defined by SocialNetwork
+     * @return the same social network; its users are all the keys of
+     *         followsGraph and all the usernames in its values
+     */
+    public static FollowsGraph fromMap(Map<String, Set<String>> followsGraph) {
+        Builder builder = new Builder();
+        for (Map.Entry<String, Set<String>> entry : followsGraph.entrySet()) {
+            builder.addUser(entry.getKey());
+            for (String followed : entry.getValue()) {
+                builder.addFollows(entry.getKey(), followed);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Convert this social network to the form used by SocialNetwork.
+     *
+     * @return a new mutable social network, as defined by SocialNetwork, in
+     *         which every user of this graph is a key
+     */
+    public Map<String, Set<String>> toMap() {
+        Map<String, Set<String>> map = new HashMap<>();
+        for (int u = 0; u < usernames.length; u++) {
+            Set<String> follows = new HashSet<>();
+            for (int e = followingOffsets[u]; e < followingOffsets[u + 1]; e++) {
+                follows.add(usernames[following[e]]);
+            }
+            map.put(usernames[u], follows);
+        }
+        return map;
+    }
+
+    /**
+     * @return number of users
+     */
+    public int userCount() {
+        return usernames.length;
+    }
+
+    /**
+     * @return number of follows edges
+     */
+    public int edgeCount() {
+        return following.length;
+    }
+
+    /**
+     * @param username a username
+     * @return id of that user, or -1 if it is not in this graph
+     */
+    public int idOf(String username) {
+        Integer id = ids.get(username);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param id user id in [0, userCount())
+     * @return that user's username
+     */
+    public String username(int id) {
+        return usernames[id];
+    }
+
+    /**
+     * @param id user id in [0, userCount())
+     * @return number of users that user follows
+     */
+    public int followingCount(int id) {
+        return followingOffsets[id + 1] - followingOffsets[id];
+    }
+
+    /**
+     * @param id user id in [0, userCount())
+     * @return number of users following that user
+     */
+    public int followerCount(int id) {
+        return followerOffsets[id + 1] - followerOffsets[id];
+    }
+
+    /**
+     * @param id user id in [0, userCount())
+     * @return ids of the users that user follows, in ascending order
+     */
+    public int[] following(int id) {
+        return Arrays.copyOfRange(following, followingOffsets[id], followingOffsets[id + 1]);
+    }
+
+    /**
+     * @param id user id in [0, userCount())
+     * @return ids of the users following that user, in ascending order
+     */
+    public int[] followers(int id) {
+        return Arrays.copyOfRange(followers, followerOffsets[id], followerOffsets[id + 1]);
+    }
+
+    /**
+     * @param follower user id in [0, userCount())
+     * @param followed user id in [0, userCount())
+     * @return true iff follower follows followed
+     */
+    public boolean follows(int follower, int followed) {
+        return Arrays.binarySearch(following, followingOffsets[follower],
+                followingOffsets[follower + 1], followed) >= 0;
+    }
+
+    // Raw arrays for algorithms in this package; must not be modified.
+
+    int[] followingOffsets() {
+        return followingOffsets;
+    }
+
+    int[] followingIds() {
+        return following;
+    }
+
+    int[] followerOffsets() {
+        return followerOffsets;
+    }
+
+    int[] followerIds() {
+        return followers;
+    }
+
+    /**
+     * Mutable builder for a FollowsGraph. Not safe for concurrent use.
+     */
+    public static class Builder {
+
+        private final Map<String, Integer> ids = new HashMap<>();
+        private String[] usernames = new String[16];
+        private int[] sources = new int[16];
+        private int[] targets = new int[16];
+        private int edgeCount = 0;
+        /*
+         * Abstraction function:
+         *   represents the social network on users usernames[0..ids.size()) in
+         *   which usernames[sources[e]] follows usernames[targets[e]] for each
+         *   e < edgeCount
+         * Rep invariant:
+         *   ids maps usernames[u] to u for every u < ids.size()
+         *   sources[e] != targets[e], both < ids.size()
+         */
+
+        /**
+         * Add a user, if not already present.
+         *
+         * @param username a username
+         * @return id of that user in the graph this builder will build
+         */
+        public int addUser(String username) {
+            Integer id = ids.get(username);
+            if (id == null) {
+                id = ids.size();
+                if (id == usernames.length) {
+                    usernames = Arrays.copyOf(usernames, id * 2);
+                }
+                usernames[id] = username;
+                ids.put(username, id);
+            }
+            return id;
+        }
+
+        /**
+         * Add both users and an edge between them. Adding an edge again has
+         * no effect, and a user following itself is ignored.
+         *
+         * @param follower username of the follower
+         * @param followed username of the user followed
+         */
+        public void addFollows(String follower, String followed) {
+            int u = addUser(follower);
+            int v = addUser(followed);
+            if (u == v) {
+                return;
+            }
+            if (edgeCount == sources.length) {
+                sources = Arrays.copyOf(sources, edgeCount * 2);
+                targets = Arrays.copyOf(targets, edgeCount * 2);
+            }
+            sources[edgeCount] = u;
+            targets[edgeCount] = v;
+            edgeCount++;
+        }
+
+        /**
+         * @return the social network built so far
+         */
+        public FollowsGraph build() {
+            final int n = ids.size();
+
+            // bucket edge targets by source, then sort and deduplicate each row
+            int[] rowStart = new int[n + 1];
+            for (int e = 0; e < edgeCount; e++) {
+                rowStart[sources[e] + 1]++;
+            }
+            for (int u = 0; u < n; u++) {
+                rowStart[u + 1] += rowStart[u];
+            }
+            int[] next = Arrays.copyOf(rowStart, n);
+            int[] rows = new int[edgeCount];
+            for (int e = 0; e < edgeCount; e++) {
+                rows[next[sources[e]]++] = targets[e];
+            }
+            int[] followingOffsets = new int[n + 1];
+            int m = 0;
+            for (int u = 0; u < n; u++) {
+                Arrays.sort(rows, rowStart[u], rowStart[u + 1]);
+                followingOffsets[u] = m;
+                for (int e = rowStart[u]; e < rowStart[u + 1]; e++) {
+                    if (m == followingOffsets[u] || rows[m - 1] != rows[e]) {
+                        rows[m++] = rows[e];
+                    }
+                }
+            }
+            followingOffsets[n] = m;
+            int[] following = Arrays.copyOf(rows, m);
+
+            // transpose; scanning sources in order leaves each row ascending
+            int[] followerOffsets = new int[n + 1];
+            for (int e = 0; e < m; e++) {
+                followerOffsets[following[e] + 1]++;
+            }
+            for (int v = 0; v < n; v++) {
+                followerOffsets[v + 1] += followerOffsets[v];
+            }
+            next = Arrays.copyOf(followerOffsets, n);
+            int[] followers = new int[m];
+            for (int u = 0; u < n; u++) {
+                for (int e = followingOffsets[u]; e < followingOffsets[u + 1]; e++) {
+                    followers[next[following[e]]++] = u;
+                }
+            }
+
+            return new FollowsGraph(Arrays.copyOf(usernames, n), new HashMap<>(ids),
+                    followingOffsets, following, followerOffsets, followers);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+/**
+ * A fixed 64-bit string hash for the probabilistic sketches. Unlike
+ * String.hashCode() it spreads entropy over all 64 bits, and unlike an
+ * identity hash it is the same in every JVM, so sketches built in different
+ * processes can be merged.
+ */
+class Hashing {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private Hashing() {
+    }
+
+    /**
+     * @param text text to hash
+     * @return a 64-bit hash of text
+     */
+    static long hash(CharSequence text) {
+        return hash(text, 0, text.length(), false);
+    }
+
+    /**
+     * @param text text holding the region to hash
+     * @param start start of the region
+     * @param end end of the region
+     * @param lowerCase if true, hash the region as if each char were passed
+     *                  through Character.toLowerCase first
+     * @return a 64-bit hash of text[start, end)
+     */
+    static long hash(CharSequence text, int start, int end, boolean lowerCase) {
+        // FNV-1a over the chars, then mix() to spread entropy to the high bits
+        long h = FNV_OFFSET;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            h = (h ^ (lowerCase ? Character.toLowerCase(c) : c)) * FNV_PRIME;
+        }
+        return mix(h);
+    }
+
+    /**
+     * @param x a 64-bit value, such as a tweet id
+     * @return a 64-bit hash of x; distinct values have distinct hashes
+     */
+    static long mix(long x) {
+        // the MurmurHash3 finalizer, a bijection that spreads every bit of x over the result
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb9fe1a85ec53L;
+        x ^= x >>> 33;
+        return x;
+    }
+}
@@ -0,0 +1,124 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+/**
+ * A HyperLogLog sketch: estimates the number of distinct strings added to it
+ * in fixed memory. With precision p the sketch holds 2^p one-byte registers,
+ * and the estimate has a relative standard error of about 1.04 / sqrt(2^p),
+ * e.g. 0.81% in 16 KiB for p = 14. Small counts are estimated by linear
+ * counting and are nearly exact.
+ *
+ * Sketches of equal precision can be merged, so the distinct count of a
+ * stream split over several shards is the estimate of their merged sketches.
+ *
+ * Not safe for concurrent use.
+ */
+public class HyperLogLog {
+
+    /** Smallest supported precision. */
+    public static final int MIN_PRECISION = 4;
+
+    /** Largest supported precision. */
+    public static final int MAX_PRECISION = 18;
+
+    private final int precision;
+    private final byte[] registers;
+    /*
+     * Abstraction function:
+     *   represents a multiset of 64-bit hashes h, in which registers[r] is the
+     *   greatest rank (1 + leading zeros of the hash bits after the first p)
+     *   among the hashes added whose first p bits are r, or 0 if there are none
+     * Rep invariant:
+     *   registers.length == 1 << precision
+     *   0 <= registers[r] <= 64 - precision + 1
+     */
+
+    /**
+     * Make an empty sketch.
+     *
+     * @param precision log2 of the number of registers, in
+     *                  [MIN_PRECISION, MAX_PRECISION]
+     */
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("precision " + precision + " not in ["
+                    + MIN_PRECISION + ", " + MAX_PRECISION + "]");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * @return the precision of this sketch
+     */
+    public int precision() {
+        return precision;
+    }
+
+    /**
+     * @param value string to add
+     */
+    public void add(String value) {
+        addHash(Hashing.hash(value));
+    }
+
+    /**
+     * @param hash a hash from Hashing
+     */
+    void addHash(long hash) {
+        int register = (int) (hash >>> (Long.SIZE - precision));
+        // the sentinel bit bounds the rank when the remaining bits are all zero
+        long rest = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[register]) {
+            registers[register] = rank;
+        }
+    }
+
+    /**
+     * @return estimated number of distinct strings added to this sketch
+     */
+    public long estimate() {
+        final int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte rank : registers) {
+            sum += 1.0 / (1L << rank);
+            if (rank == 0) {
+                zeros++;
+            }
+        }
+        double raw = alpha(m) * m * m / sum;
+        if (raw <= 2.5 * m && zeros > 0) {
+            return Math.round(m * Math.log((double) m / zeros));
+        }
+        return Math.round(raw);
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+        case 16: return 0.673;
+        case 32: return 0.697;
+        case 64: return 0.709;
+        default: return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+
+    /**
+     * Add everything added to another sketch to this one.
+     *
+     * @param that a sketch with the same precision, not modified
+     */
+    public void merge(HyperLogLog that) {
+        if (that.precision != precision) {
+            throw new IllegalArgumentException("precision " + that.precision + " != " + precision);
+        }
+        for (int r = 0; r < registers.length; r++) {
+            if (that.registers[r] > registers[r]) {
+                registers[r] = that.registers[r];
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The work of Extract.getTimespan and Extract.getMentionedUsers, done one
+ * tweet at a time. Accepting a tweet twice has no further effect.
+ *
+ * Not safe for concurrent use.
+ */
+class IncrementalExtract {
+
+    private Instant start;
+    private Instant end;
+    private final Set<String> mentioned = new HashSet<>();
+    private final TweetTokenizer.Handler addMention = new TweetTokenizer.Handler() {
+        @Override public boolean mention(String text, int from, int to) {
+            mentioned.add(text.substring(from, to).toLowerCase(Locale.ROOT));
+            return true;
+        }
+    };
+    /*
+     * Rep invariant:
+     *   start and end are both null iff no tweet has been accepted
+     */
+
+    /**
+     * @param tweet a tweet to add
+     */
+    void accept(Tweet tweet) {
+        Instant time = tweet.getTimestamp();
+        if (start == null || time.isBefore(start)) {
+            start = time;
+        }
+        if (end == null || time.isAfter(end)) {
+            end = time;
+        }
+        TweetTokenizer.tokenize(tweet.getText(), addMention);
+    }
+
+    /**
+     * @return Extract.getTimespan of the tweets accepted so far, or null if
+     *         there were none
+     */
+    Timespan timespan() {
+        return start == null ? null : new Timespan(start, end);
+    }
+
+    /**
+     * @return Extract.getMentionedUsers of the tweets accepted so far, as a
+     *         new set
+     */
+    Set<String> mentionedUsers() {
+        return new HashSet<>(mentioned);
+    }
+}
@@ -0,0 +1,144 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A social network, as defined by SocialNetwork, that is guessed from tweets
+ * one at a time and kept ranked as it grows. After accepting some tweets,
+ * followsGraph() and influencers() agree with SocialNetwork.guessFollowsGraph
+ * and SocialNetwork.influencers(graph, k) run over all of them, but each tweet
+ * costs O(log n) per new edge rather than a rebuild, and influencers(k) costs
+ * O(k).
+ *
+ * Not safe for concurrent use.
+ */
+public class IncrementalSocialNetwork {
+
+    private final Map<String, Set<String>> follows = new HashMap<>();
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] usernames = new String[16];
+    private int[] followers = new int[16];
+    private final TreeSet<Integer> leaderboard = new TreeSet<>((a, b) -> {
+        if (followers[a] != followers[b]) {
+            return followers[a] > followers[b] ? -1 : 1;
+        }
+        return usernames[a].compareTo(usernames[b]);
+    });
+    private final SocialNetwork.FollowsCollector collector =
+            new SocialNetwork.FollowsCollector(this::addFollows);
+    /*
+     * Abstraction function:
+     *   represents the social network follows, in which the users are
+     *   usernames[0..ids.size()) and user u has followers[u] followers
+     * Rep invariant:
+     *   ids maps usernames[u] to u for every u < ids.size()
+     *   the users are exactly the keys of follows and the members of its values
+     *   followers[u] == number of values of follows containing usernames[u]
+     *   leaderboard holds exactly the ids [0, ids.size()), ordered by
+     *   descending followers[], then ascending usernames[]
+     */
+
+    /**
+     * Add the follows evidence in a tweet, as guessFollowsGraph would find it.
+     *
+     * @param tweet a tweet
+     */
+    public void accept(Tweet tweet) {
+        collector.accept(tweet);
+    }
+
+    /*
+     * Add an edge, if new, and move the followed user up the leaderboard.
+     */
+    private void addFollows(String follower, String followed) {
+        Set<String> edges = follows.get(follower);
+        if (edges == null) {
+            edges = new HashSet<>();
+            follows.put(follower, edges);
+            idOf(follower);
+        }
+        if (!edges.add(followed)) {
+            return;
+        }
+        int id = idOf(followed);
+        leaderboard.remove(id); // must leave before its rank changes
+        followers[id]++;
+        leaderboard.add(id);
+    }
+
+    /*
+     * @return id of username, adding it with no followers if new
+     */
+    private int idOf(String username) {
+        Integer id = ids.get(username);
+        if (id == null) {
+            id = ids.size();
+            if (id == usernames.length) {
+                usernames = Arrays.copyOf(usernames, id * 2);
+                followers = Arrays.copyOf(followers, id * 2);
+            }
+            usernames[id] = username;
+            ids.put(username, id);
+            leaderboard.add(id);
+        }
+        return id;
+    }
+
+    /**
+     * @return number of users in the network
+     */
+    public int userCount() {
+        return ids.size();
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return number of users in the network following username
+     */
+    public int followerCount(String username) {
+        Integer id = ids.get(username.toLowerCase(Locale.ROOT));
+        return id == null ? 0 : followers[id];
+    }
+
+    /**
+     * @return a new social network equal to what guessFollowsGraph would
+     *         return for the tweets accepted so far
+     */
+    public Map<String, Set<String>> followsGraph() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : follows.entrySet()) {
+            graph.put(entry.getKey(), new HashSet<>(entry.getValue()));
+        }
+        return graph;
+    }
+
+    /**
+     * Find the people with the most followers so far.
+     *
+     * @param k number of people to find, nonnegative
+     * @return the same list as SocialNetwork.influencers(followsGraph(), k)
+     */
+    public List<String> influencers(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("negative k " + k);
+        }
+        List<String> top = new ArrayList<>(Math.min(k, ids.size()));
+        Iterator<Integer> ranked = leaderboard.iterator();
+        while (top.size() < k && ranked.hasNext()) {
+            top.add(usernames[ranked.next()]);
+        }
+        return top;
+    }
+}
@@ -0,0 +1,60 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of ints in a primitive array, for tweet ordinals and other
+ * small ids that would otherwise be boxed.
+ */
+class IntList {
+
+    /** An empty list, shared; must never be modified. */
+    static final IntList EMPTY = new IntList();
+
+    private int[] values = new int[2];
+    private int size = 0;
+
+    /**
+     * @param value int to append
+     */
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * @param i index in [0, size())
+     * @return the int at index i
+     */
+    int get(int i) {
+        if (i >= size) {
+            throw new IndexOutOfBoundsException("index " + i + ", size " + size);
+        }
+        return values[i];
+    }
+
+    /**
+     * Remove the int at an index, shifting later ints down.
+     *
+     * @param i index in [0, size())
+     */
+    void removeAt(int i) {
+        if (i >= size) {
+            throw new IndexOutOfBoundsException("index " + i + ", size " + size);
+        }
+        System.arraycopy(values, i + 1, values, i, size - i - 1);
+        size--;
+    }
+
+    /**
+     * @return number of ints in this list
+     */
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,194 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable matcher for a list of words, compiled once into a case-insensitive
+ * automaton and then run over tweet texts in a single left-to-right pass, with
+ * no lowercased copy or split of the text. Matches whole words as defined by
+ * Filter.containing: a text matches iff one of its whitespace-delimited words
+ * equals one of the matcher's words, ignoring case.
+ *
+ * Because matches must be whole words, the automaton is a trie that restarts
+ * at the root at every word boundary; failure links, which a substring matcher
+ * would need, are never taken. The cost per text is linear in its length and
+ * independent of the number of words compiled.
+ *
+ * Case is folded as by String.toLowerCase(Locale.ROOT). ASCII text is folded
+ * one char at a time as it is scanned; text with any non-ASCII char is
+ * lowercased as a whole first, since folding there is not per-char.
+ *
+ * Safe for concurrent use by multiple threads.
+ */
+public class KeywordMatcher {
+
+    private static final int ROOT = 0;
+
+    // state s has transitions labels[first[s]..first[s+1]) -> targets[...],
+    // with labels sorted ascending within each state
+    private final int[] first;
+    private final char[] labels;
+    private final int[] targets;
+    private final boolean[] accepting;
+    /*
+     * Abstraction function:
+     *   represents the set of words spelled (in lowercase) by the paths from
+     *   ROOT to an accepting state
+     * Rep invariant:
+     *   first.length == accepting.length + 1, first ascending, first[0] == 0,
+     *   first[accepting.length] == labels.length == targets.length
+     *   labels strictly ascending within each state's range
+     *   0 < targets[i] < accepting.length
+     */
+
+    private KeywordMatcher(int[] first, char[] labels, int[] targets, boolean[] accepting) {
+        this.first = first;
+        this.labels = labels;
+        this.targets = targets;
+        this.accepting = accepting;
+    }
+
+    /**
+     * Compile a list of words.
+     *
+     * @param words words to match, as defined by Filter.containing; words
+     *              that are empty or contain whitespace can never match a
+     *              tweet word and are ignored
+     * @return a matcher for words
+     */
+    public static KeywordMatcher compile(List<String> words) {
+        // build a pointer trie, then flatten it into arrays
+        List<Map<Character, Integer>> children = new ArrayList<>();
+        List<Boolean> terminal = new ArrayList<>();
+        children.add(new TreeMap<>());
+        terminal.add(false);
+
+        for (String word : words) {
+            if (word.isEmpty() || !isWord(word)) {
+                continue;
+            }
+            String lower = word.toLowerCase(Locale.ROOT);
+            int state = ROOT;
+            for (int i = 0; i < lower.length(); i++) {
+                char c = lower.charAt(i);
+                Integer next = children.get(state).get(c);
+                if (next == null) {
+                    next = children.size();
+                    children.add(new TreeMap<>());
+                    terminal.add(false);
+                    children.get(state).put(c, next);
+                }
+                state = next;
+            }
+            terminal.set(state, true);
+        }
+
+        final int states = children.size();
+        int[] first = new int[states + 1];
+        char[] labels = new char[states - 1];
+        int[] targets = new int[states - 1];
+        boolean[] accepting = new boolean[states];
+        int edge = 0;
+        for (int s = 0; s < states; s++) {
+            first[s] = edge;
+            accepting[s] = terminal.get(s);
+            for (Map.Entry<Character, Integer> child : children.get(s).entrySet()) {
+                labels[edge] = child.getKey();
+                targets[edge] = child.getValue();
+                edge++;
+            }
+        }
+        first[states] = edge;
+        return new KeywordMatcher(first, labels, targets, accepting);
+    }
+
+    private static boolean isWord(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (TweetTokenizer.isSpace(word.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param text text to scan
+     * @return true iff some whitespace-delimited word of text equals one of
+     *         this matcher's words, ignoring case
+     */
+    public boolean matches(String text) {
+        return scan(text, false);
+    }
+
+    /*
+     * Run the automaton over text, which is already lowercased iff folded.
+     */
+    private boolean scan(String text, boolean folded) {
+        final int length = text.length();
+        int state = ROOT;
+        boolean inWord = false;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80 && !folded) {
+                return scan(text.toLowerCase(Locale.ROOT), true);
+            }
+            if (TweetTokenizer.isSpace(c)) {
+                if (inWord && state >= 0 && accepting[state]) {
+                    return true;
+                }
+                state = ROOT;
+                inWord = false;
+            } else {
+                inWord = true;
+                if (state >= 0) {
+                    state = step(state, folded ? c : Character.toLowerCase(c));
+                }
+            }
+        }
+        return inWord && state >= 0 && accepting[state];
+    }
+
+    /*
+     * @return the state reached from state on c, or -1 if there is none
+     */
+    private int step(int state, char c) {
+        int lo = first[state];
+        int hi = first[state + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char label = labels[mid];
+            if (label < c) {
+                lo = mid + 1;
+            } else if (label > c) {
+                hi = mid - 1;
+            } else {
+                return targets[mid];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find tweets containing at least one of this matcher's words.
+     *
+     * @param tweets a list of tweets, not modified by this method
+     * @return the same result as Filter.containing(tweets, words) for the
+     *         words this matcher was compiled from
+     */
+    public List<Tweet> filter(List<Tweet> tweets) {
+        List<Tweet> result = new ArrayList<>();
+        for (Tweet tweet : tweets) {
+            if (matches(tweet.getText())) {
+                result.add(tweet);
+            }
+        }
+        return result;
+    }
+}
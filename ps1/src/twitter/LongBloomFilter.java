@@ -0,0 +1,77 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+/**
+ * A Bloom filter over long keys: a set that may report keys it was never
+ * given (false positives), but never misses one it was, in fixed memory.
+ * Sized for an expected number of keys and false-positive rate; adding more
+ * keys than expected raises the rate.
+ *
+ * Not safe for concurrent use.
+ */
+class LongBloomFilter {
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+    /*
+     * Abstraction function:
+     *   represents a set containing at least every key added, in which key
+     *   is a member iff bit index(key, i) of bits is set for every
+     *   i < hashCount
+     * Rep invariant:
+     *   bitCount == 64 * bits.length, hashCount >= 1
+     */
+
+    /**
+     * Make an empty filter.
+     *
+     * @param expectedKeys number of keys the filter is sized for, positive
+     * @param falsePositiveRate chance that a key never added is reported
+     *                          once expectedKeys have been, in (0, 1)
+     */
+    LongBloomFilter(long expectedKeys, double falsePositiveRate) {
+        if (expectedKeys <= 0 || !(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("bad sizing " + expectedKeys + " keys at " + falsePositiveRate);
+        }
+        // optimal sizing: m = -n ln p / (ln 2)^2 bits, k = (m / n) ln 2 hashes
+        double optimalBits = -expectedKeys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        long words = (long) Math.ceil(optimalBits / 64);
+        if (words > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("filter for " + expectedKeys + " keys too large");
+        }
+        this.bits = new long[(int) Math.max(1, words)];
+        this.bitCount = 64L * bits.length;
+        this.hashCount = (int) Math.max(1, Math.round((double) bitCount / expectedKeys * Math.log(2)));
+    }
+
+    /**
+     * @param key key to add
+     */
+    void add(long key) {
+        long h1 = Hashing.mix(key);
+        long h2 = Hashing.mix(h1);
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(h1 + i * h2, bitCount);
+            bits[(int) (index >>> 6)] |= 1L << index;
+        }
+    }
+
+    /**
+     * @param key a key
+     * @return true if key was added, and possibly if it was not
+     */
+    boolean mightContain(long key) {
+        long h1 = Hashing.mix(key);
+        long h2 = Hashing.mix(h1);
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
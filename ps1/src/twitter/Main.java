@@ -6,6 +6,10 @@ package twitter;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -24,6 +28,18 @@ public class Main {
      */
     public static final URL SAMPLE_SERVER = makeURLAssertWellFormatted("http://courses.csail.mit.edu/6.005/ps1_tweets/tweetPoll.py");
     
+    /** Number of influencers to print. */
+    private static final int INFLUENCER_COUNT = 10;
+    
+    /** Capacity of each queue between stages in --pipeline mode. */
+    private static final int PIPELINE_QUEUE_CAPACITY = 1024;
+    
+    /** Time between polls in --daemon mode. */
+    private static final Duration DAEMON_POLL_INTERVAL = Duration.ofMinutes(1);
+    
+    /** Directory of the response cache in --daemon mode. */
+    private static final Path DAEMON_CACHE = Paths.get(System.getProperty("java.io.tmpdir"), "ps1-tweet-cache");
+    
     private static URL makeURLAssertWellFormatted(String urlString) {
         try {
             return new URL(urlString);
@@ -36,7 +52,11 @@ public class Main {
      * Main method of the program. Fetches a sample of tweets and prints some
      * facts about it.
      * 
-     * @param args command-line arguments (not used)
+     * @param args command-line arguments: "--pipeline" to analyze the tweets
+     *             as they download, with TweetPipeline, and print how long
+     *             each stage took; "--daemon" to poll the server forever with
+     *             PollingDaemon, printing the influencers whenever the sample
+     *             changes
      */
     public static void main(String[] args) {
         try {
@@ -44,15 +64,24 @@ public class Main {
             throw new Error("Always run main and tests with assertions enabled");
         } catch (AssertionError ae) { }
         
+        if (Arrays.asList(args).contains("--daemon")) {
+            runDaemon();
+            return;
+        }
+        if (Arrays.asList(args).contains("--pipeline")) {
+            runPipeline();
+            return;
+        }
+        
         final List<Tweet> tweets;
         try {
-            tweets = TweetReader.readTweetsFromWeb(SAMPLE_SERVER);
+            tweets = new TweetDeduplicator().distinct(TweetReader.readTweetsFromWeb(SAMPLE_SERVER));
         } catch (IOException ioe) {
             throw new RuntimeException(ioe);
         }
         
         // display some characteristics about the tweets
-        System.err.println("fetched " + tweets.size() + " tweets");
+        System.err.println("fetched " + tweets.size() + " distinct tweets");
         
         final Timespan span = Extract.getTimespan(tweets);
         System.err.println("ranging from " + span.getStart() + " to " + span.getEnd());
@@ -65,9 +94,64 @@ public class Main {
         System.err.println("follows graph has " + followsGraph.size() + " nodes");
         
         // print the top-N influencers
-        final int count = 10;
-        final List<String> influencers = SocialNetwork.influencers(followsGraph);
-        for (String username : influencers.subList(0, Math.min(count, influencers.size()))) {
+        final List<String> influencers = SocialNetwork.influencers(followsGraph, INFLUENCER_COUNT);
+        for (String username : influencers) {
+            System.out.println(username);
+        }
+    }
+    
+    private static void runDaemon() {
+        final PollingDaemon daemon;
+        try {
+            daemon = new PollingDaemon(SAMPLE_SERVER, DAEMON_CACHE);
+        } catch (IOException ioe) {
+            throw new RuntimeException(ioe);
+        }
+        
+        boolean changed = daemon.timespan() != null; // resumed from the cache
+        while (true) {
+            try {
+                changed |= daemon.poll();
+            } catch (IOException ioe) {
+                System.err.println("poll failed, will retry: " + ioe);
+            }
+            if (changed) {
+                System.err.println("covers " + daemon.mentionedUsers().size() + " Twitter users, "
+                        + "follows graph has " + daemon.followsGraph().size() + " nodes");
+                for (String username : daemon.influencers(INFLUENCER_COUNT)) {
+                    System.out.println(username);
+                }
+                System.out.println();
+                changed = false;
+            }
+            try {
+                Thread.sleep(DAEMON_POLL_INTERVAL.toMillis());
+            } catch (InterruptedException ie) {
+                return;
+            }
+        }
+    }
+    
+    private static void runPipeline() {
+        final TweetPipeline.Result result;
+        try {
+            result = new TweetPipeline(PIPELINE_QUEUE_CAPACITY, INFLUENCER_COUNT).run(SAMPLE_SERVER);
+        } catch (IOException ioe) {
+            throw new RuntimeException(ioe);
+        }
+        
+        final Timespan span = result.timespan();
+        if (span != null) {
+            System.err.println("ranging from " + span.getStart() + " to " + span.getEnd());
+        }
+        System.err.println("covers " + result.mentionedUsers().size() + " Twitter users");
+        System.err.println("follows graph has " + result.followsGraph().size() + " nodes");
+        System.err.println("dropped " + result.duplicates() + " duplicate tweets");
+        for (TweetPipeline.Stage stage : result.stages()) {
+            System.err.println(stage);
+        }
+        
+        for (String username : result.influencers()) {
             System.out.println(username);
         }
     }
@@ -0,0 +1,128 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A Reader that decodes a UTF-8 file straight out of memory-mapped windows of
+ * the file, so the file's bytes are never copied onto the heap. Files larger
+ * than one window (and hence larger than 2 GB) are mapped one window at a time.
+ */
+class MappedFileReader extends Reader {
+
+    /** Default size in bytes of each mapped window. */
+    static final int DEFAULT_WINDOW_SIZE = 1 << 28;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int windowSize;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+
+    private MappedByteBuffer window;
+    private long windowStart = 0;
+    private boolean flushed = false;
+    private int pending = -1;
+    /*
+     * Abstraction function:
+     *   represents the char pending (if pending >= 0) followed by the
+     *   characters of the file from byte offset windowStart + window.position()
+     * Rep invariant:
+     *   0 <= windowStart <= size
+     *   window covers bytes [windowStart, windowStart + window.limit()) of the file
+     *   bytes left in window when it is remapped are an incomplete UTF-8 sequence
+     */
+
+    /**
+     * Open a file for reading.
+     *
+     * @param path file to read, encoded in UTF-8
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    MappedFileReader(Path path) throws IOException {
+        this(path, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Open a file for reading.
+     *
+     * @param path file to read, encoded in UTF-8
+     * @param windowSize number of bytes to map at a time, at least 4 so that
+     *                   any UTF-8 sequence fits in a window
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    MappedFileReader(Path path, int windowSize) throws IOException {
+        if (windowSize < 4) {
+            throw new IllegalArgumentException("window must hold at least one UTF-8 sequence");
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = windowSize;
+        this.window = map(0);
+    }
+
+    private MappedByteBuffer map(long start) throws IOException {
+        long length = Math.min(windowSize, size - start);
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+    }
+
+    private boolean isLastWindow() {
+        return windowStart + window.limit() >= size;
+    }
+
+    @Override public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+        if (pending >= 0) {
+            out.put((char) pending);
+            pending = -1;
+        }
+        while (out.position() == off) {
+            if (flushed) {
+                return -1;
+            }
+            boolean last = isLastWindow();
+            CoderResult result = decoder.decode(window, out, last);
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (result.isOverflow() && out.position() == off) {
+                // a surrogate pair does not fit in a one-char request
+                CharBuffer pair = CharBuffer.allocate(2);
+                decoder.decode(window, pair, last);
+                out.put(pair.get(0));
+                pending = pair.get(1);
+            }
+            if (result.isUnderflow()) {
+                if (last) {
+                    decoder.flush(out);
+                    flushed = true;
+                } else {
+                    // remap so the window starts at the first unconsumed byte
+                    windowStart += window.position();
+                    window = map(windowStart);
+                }
+            }
+        }
+        return out.position() - off;
+    }
+
+    @Override public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,105 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+/**
+ * Approximate mention analytics in fixed memory, for streams too large for
+ * Extract.getMentionedUsers to hold every distinct username: a HyperLogLog
+ * estimates the number of distinct mentioned users, and a Count-Min sketch
+ * estimates how many times each user has been mentioned. Mentions are found
+ * and compared case-insensitively exactly as by Extract.getMentionedUsers.
+ *
+ * The default sketches use about 16 KiB (distinct count within about 0.81%
+ * relative standard error) and 106 KiB (each mention count over by at most
+ * 0.1% of all mentions, with probability 99%); the other constructor sizes
+ * them explicitly. Sketches of equal sizes from different shards of a stream
+ * can be merged.
+ *
+ * Not safe for concurrent use.
+ */
+public class MentionSketch {
+
+    /** HyperLogLog precision used by the default constructor. */
+    public static final int DEFAULT_PRECISION = 14;
+
+    /** Count-Min error, as a fraction of all mentions, used by the default constructor. */
+    public static final double DEFAULT_EPSILON = 0.001;
+
+    /** Count-Min failure probability used by the default constructor. */
+    public static final double DEFAULT_DELTA = 0.01;
+
+    private final HyperLogLog distinct;
+    private final CountMinSketch frequencies;
+
+    // adds each mention, hashed in place without a lowercased copy
+    private final TweetTokenizer.Handler addMention = new TweetTokenizer.Handler() {
+        @Override public boolean mention(String text, int start, int end) {
+            long hash = Hashing.hash(text, start, end, true);
+            distinct.addHash(hash);
+            frequencies.addHash(hash, 1);
+            return true;
+        }
+    };
+
+    /**
+     * Make an empty sketch with the default sizes.
+     */
+    public MentionSketch() {
+        this(new HyperLogLog(DEFAULT_PRECISION), CountMinSketch.forError(DEFAULT_EPSILON, DEFAULT_DELTA));
+    }
+
+    /**
+     * Make an empty sketch.
+     *
+     * @param distinct empty sketch to count distinct mentioned users in
+     * @param frequencies empty sketch to count mentions per user in
+     */
+    public MentionSketch(HyperLogLog distinct, CountMinSketch frequencies) {
+        this.distinct = distinct;
+        this.frequencies = frequencies;
+    }
+
+    /**
+     * Add the mentions in a tweet.
+     *
+     * @param tweet a tweet
+     */
+    public void accept(Tweet tweet) {
+        TweetTokenizer.tokenize(tweet.getText(), addMention);
+    }
+
+    /**
+     * @return estimated number of distinct users mentioned, i.e. the size of
+     *         Extract.getMentionedUsers over the tweets accepted
+     */
+    public long distinctMentionedUsers() {
+        return distinct.estimate();
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return estimated number of mentions of username (in any case) in the
+     *         tweets accepted, never less than the true number
+     */
+    public long mentionCount(String username) {
+        return frequencies.estimateHash(Hashing.hash(username, 0, username.length(), true));
+    }
+
+    /**
+     * @return total number of mentions in the tweets accepted, exactly
+     */
+    public long totalMentions() {
+        return frequencies.totalCount();
+    }
+
+    /**
+     * Add the mentions counted by another sketch to this one.
+     *
+     * @param that a sketch with sketches of the same sizes, not modified
+     */
+    public void merge(MentionSketch that) {
+        distinct.merge(that.distinct);
+        frequencies.merge(that.frequencies);
+    }
+}
@@ -0,0 +1,381 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A mutable set of nonnegative ints (tweet ordinals), compressed in the style
+ * of a Roaring bitmap: ints are grouped by their high 16 bits, and each group
+ * is stored either as a sorted array of its low 16 bits, when it holds at
+ * most ARRAY_MAX values, or as a 65536-bit bitmap otherwise. Sparse sets cost
+ * about 2 bytes per value and dense ones about 1 bit per value.
+ */
+class OrdinalBitmap {
+
+    /** Most values a group holds as an array before switching to a bitmap. */
+    static final int ARRAY_MAX = 4096;
+
+    private static final int WORDS = (1 << 16) / Long.SIZE;
+
+    private char[] keys = new char[4];
+    private Object[] groups = new Object[4];
+    private int[] cardinalities = new int[4];
+    private int groupCount = 0;
+    /*
+     * Abstraction function:
+     *   represents the set of all (keys[g] << 16) | low for g < groupCount,
+     *   where low ranges over the first cardinalities[g] chars of groups[g]
+     *   if it is a char[], or over the set bits of groups[g] if it is a long[]
+     * Rep invariant:
+     *   keys[0..groupCount) strictly ascending
+     *   0 < cardinalities[g]
+     *   groups[g] is a char[] with ascending entries iff cardinalities[g] <= ARRAY_MAX,
+     *   otherwise a long[WORDS] with cardinalities[g] bits set
+     */
+
+    /**
+     * Make an empty set.
+     */
+    OrdinalBitmap() {
+    }
+
+    /**
+     * Make a set from ordinals.
+     *
+     * @param ordinals nonnegative ints, in any order
+     * @param from start of the range of ordinals to use
+     * @param to end of the range of ordinals to use
+     * @return a set holding ordinals[from, to)
+     */
+    static OrdinalBitmap of(int[] ordinals, int from, int to) {
+        int[] sorted = Arrays.copyOfRange(ordinals, from, to);
+        Arrays.sort(sorted);
+        OrdinalBitmap bitmap = new OrdinalBitmap();
+        for (int ordinal : sorted) {
+            bitmap.add(ordinal);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Add an int to this set. Adding in ascending order is fastest.
+     *
+     * @param value nonnegative int to add
+     */
+    void add(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("negative ordinal " + value);
+        }
+        char key = (char) (value >>> 16);
+        char low = (char) value;
+        int g = findGroup(key);
+        if (g < 0) {
+            g = -g - 1;
+            insertGroup(g, key);
+        }
+        int cardinality = cardinalities[g];
+        if (groups[g] instanceof long[]) {
+            long[] bits = (long[]) groups[g];
+            long mask = 1L << low;
+            if ((bits[low >>> 6] & mask) == 0) {
+                bits[low >>> 6] |= mask;
+                cardinalities[g]++;
+            }
+            return;
+        }
+        char[] values = (char[]) groups[g];
+        int at = cardinality > 0 && values[cardinality - 1] < low
+                ? -cardinality - 1 // appending, the common case
+                : Arrays.binarySearch(values, 0, cardinality, low);
+        if (at >= 0) {
+            return;
+        }
+        at = -at - 1;
+        if (cardinality == ARRAY_MAX) {
+            long[] bits = toBits(values, cardinality);
+            bits[low >>> 6] |= 1L << low;
+            groups[g] = bits;
+        } else {
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, cardinality * 2));
+                groups[g] = values;
+            }
+            System.arraycopy(values, at, values, at + 1, cardinality - at);
+            values[at] = low;
+        }
+        cardinalities[g]++;
+    }
+
+    /**
+     * @param value an int
+     * @return true iff value is in this set
+     */
+    boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int g = findGroup((char) (value >>> 16));
+        if (g < 0) {
+            return false;
+        }
+        char low = (char) value;
+        if (groups[g] instanceof long[]) {
+            return (((long[]) groups[g])[low >>> 6] & (1L << low)) != 0;
+        }
+        return Arrays.binarySearch((char[]) groups[g], 0, cardinalities[g], low) >= 0;
+    }
+
+    /**
+     * @return number of ints in this set
+     */
+    int cardinality() {
+        int total = 0;
+        for (int g = 0; g < groupCount; g++) {
+            total += cardinalities[g];
+        }
+        return total;
+    }
+
+    /**
+     * @return true iff this set is empty
+     */
+    boolean isEmpty() {
+        return groupCount == 0;
+    }
+
+    /**
+     * Pass every int in this set to an action, in ascending order.
+     *
+     * @param action action to run
+     */
+    void forEach(IntConsumer action) {
+        for (int g = 0; g < groupCount; g++) {
+            int high = keys[g] << 16;
+            if (groups[g] instanceof long[]) {
+                long[] bits = (long[]) groups[g];
+                for (int w = 0; w < WORDS; w++) {
+                    long word = bits[w];
+                    while (word != 0) {
+                        action.accept(high | (w << 6) | Long.numberOfTrailingZeros(word));
+                        word &= word - 1;
+                    }
+                }
+            } else {
+                char[] values = (char[]) groups[g];
+                for (int i = 0; i < cardinalities[g]; i++) {
+                    action.accept(high | values[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param that another set
+     * @return a new set holding the ints in both this and that
+     */
+    OrdinalBitmap and(OrdinalBitmap that) {
+        OrdinalBitmap result = new OrdinalBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < this.groupCount && j < that.groupCount) {
+            if (this.keys[i] < that.keys[j]) {
+                i++;
+            } else if (this.keys[i] > that.keys[j]) {
+                j++;
+            } else {
+                result.andGroups(this.keys[i], this.groups[i], this.cardinalities[i],
+                        that.groups[j], that.cardinalities[j]);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param that another set
+     * @return a new set holding the ints in this or that
+     */
+    OrdinalBitmap or(OrdinalBitmap that) {
+        OrdinalBitmap result = new OrdinalBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < this.groupCount || j < that.groupCount) {
+            if (j >= that.groupCount || (i < this.groupCount && this.keys[i] < that.keys[j])) {
+                result.appendGroup(this.keys[i], copy(this.groups[i]), this.cardinalities[i]);
+                i++;
+            } else if (i >= this.groupCount || this.keys[i] > that.keys[j]) {
+                result.appendGroup(that.keys[j], copy(that.groups[j]), that.cardinalities[j]);
+                j++;
+            } else {
+                result.orGroups(this.keys[i], this.groups[i], this.cardinalities[i],
+                        that.groups[j], that.cardinalities[j]);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    private static Object copy(Object group) {
+        return group instanceof long[] ? ((long[]) group).clone() : ((char[]) group).clone();
+    }
+
+    /*
+     * Append the intersection of two groups with the given key, if nonempty.
+     */
+    private void andGroups(char key, Object a, int aCard, Object b, int bCard) {
+        if (a instanceof char[] && b instanceof char[]) {
+            char[] x = (char[]) a;
+            char[] y = (char[]) b;
+            char[] out = new char[Math.min(aCard, bCard)];
+            int n = 0;
+            for (int i = 0, j = 0; i < aCard && j < bCard; ) {
+                if (x[i] < y[j]) {
+                    i++;
+                } else if (x[i] > y[j]) {
+                    j++;
+                } else {
+                    out[n++] = x[i];
+                    i++;
+                    j++;
+                }
+            }
+            appendGroup(key, out, n);
+        } else if (a instanceof long[] && b instanceof long[]) {
+            long[] x = (long[]) a;
+            long[] y = (long[]) b;
+            long[] out = new long[WORDS];
+            int n = 0;
+            for (int w = 0; w < WORDS; w++) {
+                out[w] = x[w] & y[w];
+                n += Long.bitCount(out[w]);
+            }
+            appendGroup(key, n <= ARRAY_MAX ? toChars(out, n) : out, n);
+        } else {
+            char[] values = (char[]) (a instanceof char[] ? a : b);
+            int card = a instanceof char[] ? aCard : bCard;
+            long[] bits = (long[]) (a instanceof long[] ? a : b);
+            char[] out = new char[card];
+            int n = 0;
+            for (int i = 0; i < card; i++) {
+                char v = values[i];
+                if ((bits[v >>> 6] & (1L << v)) != 0) {
+                    out[n++] = v;
+                }
+            }
+            appendGroup(key, out, n);
+        }
+    }
+
+    /*
+     * Append the union of two groups with the given key.
+     */
+    private void orGroups(char key, Object a, int aCard, Object b, int bCard) {
+        if (a instanceof char[] && b instanceof char[]) {
+            char[] x = (char[]) a;
+            char[] y = (char[]) b;
+            char[] out = new char[aCard + bCard];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < aCard || j < bCard) {
+                if (j >= bCard || (i < aCard && x[i] < y[j])) {
+                    out[n++] = x[i++];
+                } else if (i >= aCard || x[i] > y[j]) {
+                    out[n++] = y[j++];
+                } else {
+                    out[n++] = x[i++];
+                    j++;
+                }
+            }
+            appendGroup(key, n <= ARRAY_MAX ? out : toBits(out, n), n);
+        } else {
+            long[] out = a instanceof long[] ? ((long[]) a).clone() : toBits((char[]) a, aCard);
+            if (b instanceof long[]) {
+                long[] y = (long[]) b;
+                for (int w = 0; w < WORDS; w++) {
+                    out[w] |= y[w];
+                }
+            } else {
+                char[] y = (char[]) b;
+                for (int j = 0; j < bCard; j++) {
+                    out[y[j] >>> 6] |= 1L << y[j];
+                }
+            }
+            int n = 0;
+            for (long word : out) {
+                n += Long.bitCount(word);
+            }
+            appendGroup(key, n <= ARRAY_MAX ? toChars(out, n) : out, n);
+        }
+    }
+
+    private static long[] toBits(char[] values, int cardinality) {
+        long[] bits = new long[WORDS];
+        for (int i = 0; i < cardinality; i++) {
+            bits[values[i] >>> 6] |= 1L << values[i];
+        }
+        return bits;
+    }
+
+    private static char[] toChars(long[] bits, int cardinality) {
+        char[] values = new char[cardinality];
+        int n = 0;
+        for (int w = 0; w < WORDS; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                values[n++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return values;
+    }
+
+    /*
+     * @return index of the group with key, or (-(insertion point) - 1)
+     */
+    private int findGroup(char key) {
+        if (groupCount > 0 && keys[groupCount - 1] == key) {
+            return groupCount - 1;
+        }
+        return Arrays.binarySearch(keys, 0, groupCount, key);
+    }
+
+    private void insertGroup(int at, char key) {
+        ensureGroupCapacity();
+        System.arraycopy(keys, at, keys, at + 1, groupCount - at);
+        System.arraycopy(groups, at, groups, at + 1, groupCount - at);
+        System.arraycopy(cardinalities, at, cardinalities, at + 1, groupCount - at);
+        keys[at] = key;
+        groups[at] = new char[4];
+        cardinalities[at] = 0;
+        groupCount++;
+    }
+
+    /*
+     * Append a group whose key exceeds every existing key, if it is nonempty.
+     */
+    private void appendGroup(char key, Object group, int cardinality) {
+        if (cardinality == 0) {
+            return;
+        }
+        ensureGroupCapacity();
+        keys[groupCount] = key;
+        groups[groupCount] = group;
+        cardinalities[groupCount] = cardinality;
+        groupCount++;
+    }
+
+    private void ensureGroupCapacity() {
+        if (groupCount == keys.length) {
+            int capacity = keys.length * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            groups = Arrays.copyOf(groups, capacity);
+            cardinalities = Arrays.copyOf(cardinalities, capacity);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Ranks the users of a social network by PageRank over its follows edges: a
+ * user is influential if influential users follow them. Following a user
+ * passes on a share of the follower's score, and with probability
+ * 1 - damping a random walk over the edges jumps back to a user chosen from a
+ * teleport distribution, uniform for global PageRank or concentrated on a set
+ * of seed users for personalized PageRank. Users who follow nobody spread
+ * their score by the teleport distribution too.
+ *
+ * Scores are computed by power iteration over the compressed edge arrays of a
+ * FollowsGraph. Each iteration pulls scores along follower edges for blocks of
+ * users in parallel on a fork-join pool, and stops once the scores change by
+ * less than the tolerance (in L1 norm) or the iteration limit is reached.
+ *
+ * Immutable; rank() may be called from multiple threads.
+ */
+public class PageRank {
+
+    /** Damping factor used by the default constructor. */
+    public static final double DEFAULT_DAMPING = 0.85;
+
+    /** Convergence tolerance used by the default constructor. */
+    public static final double DEFAULT_TOLERANCE = 1e-9;
+
+    /** Iteration limit used by the default constructor. */
+    public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    /** Blocks created per worker thread, to smooth out uneven degrees. */
+    private static final int BLOCKS_PER_THREAD = 4;
+
+    /** Fewest users worth handling as a separate block. */
+    private static final int MIN_BLOCK_SIZE = 4096;
+
+    private final double damping;
+    private final double tolerance;
+    private final int maxIterations;
+    private final ForkJoinPool pool;
+
+    /**
+     * Make a ranker with the default parameters that runs on the common
+     * fork-join pool.
+     */
+    public PageRank() {
+        this(DEFAULT_DAMPING, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Make a ranker.
+     *
+     * @param damping probability of following an edge rather than
+     *                teleporting, in [0, 1)
+     * @param tolerance iteration stops once the L1 change in scores is below
+     *                  this, nonnegative
+     * @param maxIterations most iterations to run, positive
+     * @param pool pool to run iterations on
+     */
+    public PageRank(double damping, double tolerance, int maxIterations, ForkJoinPool pool) {
+        if (!(damping >= 0 && damping < 1)) {
+            throw new IllegalArgumentException("damping " + damping + " not in [0, 1)");
+        }
+        if (!(tolerance >= 0)) {
+            throw new IllegalArgumentException("negative tolerance " + tolerance);
+        }
+        if (maxIterations <= 0) {
+            throw new IllegalArgumentException("maxIterations " + maxIterations + " not positive");
+        }
+        this.damping = damping;
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+        this.pool = pool;
+    }
+
+    /**
+     * Compute global PageRank.
+     *
+     * @param graph social network to rank
+     * @return the scores of graph's users, teleporting uniformly
+     */
+    public Result rank(FollowsGraph graph) {
+        final int n = graph.userCount();
+        double[] teleport = new double[n];
+        Arrays.fill(teleport, 1.0 / n);
+        return iterate(graph, teleport);
+    }
+
+    /**
+     * Compute personalized PageRank: influence as seen from some users.
+     *
+     * @param graph social network to rank
+     * @param seeds usernames of the users to personalize for, as spelled in
+     *              graph; usernames not in graph are ignored
+     * @return the scores of graph's users, teleporting uniformly to the seeds
+     * @throws IllegalArgumentException if no seed is a user of graph
+     */
+    public Result rankPersonalized(FollowsGraph graph, Collection<String> seeds) {
+        double[] teleport = new double[graph.userCount()];
+        int found = 0;
+        for (String seed : seeds) {
+            int id = graph.idOf(seed);
+            if (id >= 0 && teleport[id] == 0) {
+                teleport[id] = 1;
+                found++;
+            }
+        }
+        if (found == 0) {
+            throw new IllegalArgumentException("no seed in graph: " + seeds);
+        }
+        for (int id = 0; id < teleport.length; id++) {
+            teleport[id] /= found;
+        }
+        return iterate(graph, teleport);
+    }
+
+    private Result iterate(FollowsGraph graph, double[] teleport) {
+        final int n = graph.userCount();
+        final int[] outOffsets = graph.followingOffsets();
+        final int[] inOffsets = graph.followerOffsets();
+        final int[] inIds = graph.followerIds();
+        final int blockSize = Math.max(MIN_BLOCK_SIZE,
+                n / Math.max(1, pool.getParallelism() * BLOCKS_PER_THREAD) + 1);
+        final int blocks = (n + blockSize - 1) / blockSize;
+
+        double[] scores = teleport.clone();
+        double[] next = new double[n];
+        final double[] share = new double[n];
+        long[] nanos = new long[maxIterations];
+        int iterations = 0;
+        boolean converged = n == 0;
+        while (!converged && iterations < maxIterations) {
+            long started = System.nanoTime();
+            final double[] current = scores;
+            final double[] updated = next;
+
+            // each user's share per followed user; sum the score of users following nobody
+            final double dangling = pool.invoke(new Blocks((from, to) -> {
+                double sum = 0;
+                for (int u = from; u < to; u++) {
+                    int degree = outOffsets[u + 1] - outOffsets[u];
+                    if (degree == 0) {
+                        share[u] = 0;
+                        sum += current[u];
+                    } else {
+                        share[u] = current[u] / degree;
+                    }
+                }
+                return sum;
+            }, 0, blocks, blockSize, n));
+
+            // pull shares along follower edges; sum the L1 change
+            final double change = pool.invoke(new Blocks((from, to) -> {
+                double sum = 0;
+                for (int v = from; v < to; v++) {
+                    double pulled = 0;
+                    for (int e = inOffsets[v]; e < inOffsets[v + 1]; e++) {
+                        pulled += share[inIds[e]];
+                    }
+                    double score = damping * pulled
+                            + (damping * dangling + 1 - damping) * teleport[v];
+                    updated[v] = score;
+                    sum += Math.abs(score - current[v]);
+                }
+                return sum;
+            }, 0, blocks, blockSize, n));
+
+            scores = updated;
+            next = current;
+            nanos[iterations++] = System.nanoTime() - started;
+            converged = change < tolerance;
+        }
+        return new Result(graph, scores, Arrays.copyOf(nanos, iterations), converged);
+    }
+
+    /*
+     * Work on a block of users [from, to), returning a partial sum.
+     */
+    private interface BlockSum {
+        double run(int from, int to);
+    }
+
+    /*
+     * Runs a BlockSum over blocks [lo, hi) of users [0, n) in parallel and
+     * adds up the results.
+     */
+    private static class Blocks extends RecursiveTask<Double> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final BlockSum body;
+        private final int lo;
+        private final int hi;
+        private final int blockSize;
+        private final int n;
+
+        Blocks(BlockSum body, int lo, int hi, int blockSize, int n) {
+            this.body = body;
+            this.lo = lo;
+            this.hi = hi;
+            this.blockSize = blockSize;
+            this.n = n;
+        }
+
+        @Override protected Double compute() {
+            if (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                Blocks left = new Blocks(body, lo, mid, blockSize, n);
+                left.fork();
+                double right = new Blocks(body, mid, hi, blockSize, n).compute();
+                return left.join() + right;
+            }
+            if (lo == hi) {
+                return 0.0;
+            }
+            return body.run(lo * blockSize, Math.min(n, (lo + 1) * blockSize));
+        }
+    }
+
+    /**
+     * Immutable PageRank scores of the users of a social network, with
+     * statistics about the iteration that computed them.
+     */
+    public static class Result {
+
+        private final FollowsGraph graph;
+        private final double[] scores;
+        private final long[] iterationNanos;
+        private final boolean converged;
+        /*
+         * Rep invariant:
+         *   scores.length == graph.userCount(), scores nonnegative
+         */
+
+        private Result(FollowsGraph graph, double[] scores, long[] iterationNanos, boolean converged) {
+            this.graph = graph;
+            this.scores = scores;
+            this.iterationNanos = iterationNanos;
+            this.converged = converged;
+        }
+
+        /**
+         * @param username a username, as spelled in the ranked graph
+         * @return that user's score, or 0 if the user is not in the graph;
+         *         scores over all users sum to 1
+         */
+        public double score(String username) {
+            int id = graph.idOf(username);
+            return id < 0 ? 0 : scores[id];
+        }
+
+        /**
+         * Find the most influential users.
+         *
+         * @param k number of users to find, nonnegative
+         * @return the min(k, n) usernames with the highest scores, in
+         *         descending order of score; users with equal scores are in
+         *         ascending String order
+         */
+        public List<String> influencers(int k) {
+            if (k < 0) {
+                throw new IllegalArgumentException("negative k " + k);
+            }
+            List<String> top = new ArrayList<>();
+            for (int id : TopK.select(scores.length, k, this::ranksBefore)) {
+                top.add(graph.username(id));
+            }
+            return top;
+        }
+
+        private boolean ranksBefore(int a, int b) {
+            if (scores[a] != scores[b]) {
+                return scores[a] > scores[b];
+            }
+            return graph.username(a).compareTo(graph.username(b)) < 0;
+        }
+
+        /**
+         * @return number of iterations run
+         */
+        public int iterations() {
+            return iterationNanos.length;
+        }
+
+        /**
+         * @param i iteration number in [0, iterations())
+         * @return wall-clock time iteration i took, in nanoseconds
+         */
+        public long iterationNanos(int i) {
+            return iterationNanos[i];
+        }
+
+        /**
+         * @return true iff the scores changed by less than the tolerance in
+         *         the last iteration, false if the iteration limit stopped them
+         */
+        public boolean converged() {
+            return converged;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import javax.json.JsonException;
+
+/**
+ * Decodes a JSON array of tweets on several cores. The input is scanned once
+ * for the boundaries of the top-level tweet objects, the objects are split into
+ * contiguous chunks, each chunk is decoded by TweetStreamReader on a fork-join
+ * pool, and the results are reassembled in input order. The tweets produced are
+ * identical to those produced by the sequential readers.
+ *
+ * Unlike TweetStreamReader, the whole input text is held in memory.
+ *
+ * As with TweetStreamReader, duplicate tweets in the input are returned as
+ * they are; callers must pass the result through TweetDeduplicator.distinct()
+ * to drop them.
+ */
+public class ParallelTweetDecoder {
+
+    /** Chunks created per worker thread, to smooth out uneven chunk costs. */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /** Fewest tweet objects worth decoding as a separate chunk. */
+    private static final int MIN_CHUNK_SIZE = 64;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Make a decoder that runs on the common fork-join pool.
+     */
+    public ParallelTweetDecoder() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Make a decoder.
+     *
+     * @param pool pool to decode chunks on
+     */
+    public ParallelTweetDecoder(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Decode tweets from a local file, memory-mapped as by
+     * TweetStreamReader.readTweetsFromFile().
+     *
+     * @param path file holding a JSON array of tweets, encoded in UTF-8
+     * @return a list of the tweets in the file, in file order
+     * @throws IOException if the file cannot be read
+     */
+    public List<Tweet> readTweetsFromFile(Path path) throws IOException {
+        try (Reader reader = new MappedFileReader(path)) {
+            return readTweets(reader);
+        }
+    }
+
+    /**
+     * Decode tweets from a character stream.
+     *
+     * @param reader reader holding a JSON array of tweets, read to its end but
+     *               not closed
+     * @return a list of the tweets in the array, in input order
+     * @throws IOException if the reader fails
+     */
+    public List<Tweet> readTweets(Reader reader) throws IOException {
+        StringBuilder json = new StringBuilder();
+        char[] buffer = new char[1 << 16];
+        int n;
+        while ((n = reader.read(buffer)) != -1) {
+            json.append(buffer, 0, n);
+        }
+        return decode(json.toString());
+    }
+
+    /**
+     * Decode tweets from JSON text.
+     *
+     * @param json a JSON array of tweets
+     * @return a list of the tweets in the array, in input order
+     * @throws JsonException if json is not a well-formed array of tweets
+     */
+    public List<Tweet> decode(String json) {
+        int[] bounds = findObjects(json);
+        int objects = bounds.length / 2;
+        if (objects == 0) {
+            return new ArrayList<>();
+        }
+
+        int chunkCount = Math.max(1, Math.min(pool.getParallelism() * CHUNKS_PER_THREAD,
+                objects / MIN_CHUNK_SIZE));
+        int[] firstObject = new int[chunkCount + 1];
+        for (int c = 0; c <= chunkCount; c++) {
+            firstObject[c] = (int) ((long) objects * c / chunkCount);
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        List<Tweet>[] results = new List[chunkCount];
+        pool.invoke(new DecodeChunks(json, bounds, firstObject, results, 0, chunkCount));
+
+        List<Tweet> tweets = new ArrayList<>(objects);
+        for (List<Tweet> chunk : results) {
+            tweets.addAll(chunk);
+        }
+        return tweets;
+    }
+
+    /*
+     * Scan for the top-level objects of a JSON array, skipping over string
+     * literals so that braces inside tweet text are not counted. The array
+     * itself is checked as strictly as the sequential readers check it:
+     * elements must be objects separated by single commas, and nothing but
+     * whitespace may come before or after the array. The objects' contents
+     * are left for the chunk decoders to check.
+     *
+     * @return array [start0, end0, start1, end1, ...] where object i spans
+     *         json[start_i, end_i)
+     * @throws JsonException if json is not an array of objects
+     */
+    static int[] findObjects(CharSequence json) {
+        int[] bounds = new int[64];
+        int count = 0;
+        int depth = 0;
+        boolean inString = false;
+        boolean closed = false;       // the array has ended
+        boolean afterElement = false; // in the array, just after an object
+        boolean afterComma = false;   // in the array, just after a comma
+        int start = -1;
+        for (int i = 0; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (inString) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+            if (isWhitespace(c)) {
+                continue;
+            }
+            if (depth == 0) {
+                if (closed) {
+                    throw new JsonException("unexpected data after the JSON array of tweets at offset " + i);
+                } else if (c != '[') {
+                    throw new JsonException("expected a JSON array of tweets");
+                }
+                depth = 1;
+            } else if (depth == 1) {
+                if (c == '{' && !afterElement) {
+                    start = i;
+                    depth = 2;
+                    afterComma = false;
+                } else if (c == ',' && afterElement) {
+                    afterElement = false;
+                    afterComma = true;
+                } else if (c == ']' && !afterComma) {
+                    depth = 0;
+                    closed = true;
+                } else {
+                    throw new JsonException("expected a tweet object at offset " + i);
+                }
+            } else {
+                switch (c) {
+                case '"':
+                    inString = true;
+                    break;
+                case '{':
+                case '[':
+                    depth++;
+                    break;
+                case '}':
+                case ']':
+                    depth--;
+                    if (depth == 1) {
+                        if (count + 2 > bounds.length) {
+                            bounds = Arrays.copyOf(bounds, bounds.length * 2);
+                        }
+                        bounds[count++] = start;
+                        bounds[count++] = i + 1;
+                        afterElement = true;
+                    }
+                    break;
+                default:
+                    break;
+                }
+            }
+        }
+        if (!closed) {
+            throw new JsonException("unterminated JSON array of tweets");
+        }
+        return Arrays.copyOf(bounds, count);
+    }
+
+    /*
+     * @return true iff c is JSON whitespace
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    /*
+     * Decodes chunks [lo, hi) into results, splitting the range in half until
+     * one chunk is left.
+     */
+    private static class DecodeChunks extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String json;
+        private final int[] bounds;
+        private final int[] firstObject;
+        private final List<Tweet>[] results;
+        private final int lo;
+        private final int hi;
+
+        DecodeChunks(String json, int[] bounds, int[] firstObject, List<Tweet>[] results, int lo, int hi) {
+            this.json = json;
+            this.bounds = bounds;
+            this.firstObject = firstObject;
+            this.results = results;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override protected void compute() {
+            if (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new DecodeChunks(json, bounds, firstObject, results, lo, mid),
+                          new DecodeChunks(json, bounds, firstObject, results, mid, hi));
+                return;
+            }
+            int first = firstObject[lo];
+            int last = firstObject[lo + 1] - 1;
+            Reader chunk = new ArrayRangeReader(json, bounds[2 * first], bounds[2 * last + 1]);
+            List<Tweet> tweets = new ArrayList<>(last - first + 1);
+            Iterator<Tweet> it = TweetStreamReader.iterateTweets(chunk);
+            while (it.hasNext()) {
+                tweets.add(it.next());
+            }
+            results[lo] = tweets;
+        }
+    }
+
+    /*
+     * Reads json[start, end) as if it were wrapped in '[' and ']', without
+     * copying it.
+     */
+    private static class ArrayRangeReader extends Reader {
+
+        private final String json;
+        private final int end;
+        private int position;
+        private boolean opened = false;
+        private boolean closed = false;
+
+        ArrayRangeReader(String json, int start, int end) {
+            this.json = json;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override public int read(char[] cbuf, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            int written = 0;
+            if (!opened) {
+                cbuf[off + written++] = '[';
+                opened = true;
+            }
+            int n = Math.min(len - written, end - position);
+            json.getChars(position, position + n, cbuf, off + written);
+            position += n;
+            written += n;
+            if (position == end && written < len && !closed) {
+                cbuf[off + written++] = ']';
+                closed = true;
+            }
+            return written == 0 ? -1 : written;
+        }
+
+        @Override public void close() {
+            // nothing to release
+        }
+    }
+}
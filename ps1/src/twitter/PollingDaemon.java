@@ -0,0 +1,297 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import javax.json.JsonException;
+
+/**
+ * Polls a tweet server and keeps the facts Main prints up to date.
+ *
+ * Each poll sends a conditional request, with the ETag and Last-Modified
+ * validators of the last response, so a server whose sample has not changed
+ * answers 304 Not Modified and sends nothing. The last response body is kept
+ * in an on-disk cache with its validators and a digest of its content. That
+ * means a daemon restarted on the same cache directory resumes from the cached
+ * sample without downloading it again, and a 200 response whose body is
+ * byte-for-byte the cached one (from a server that ignores validators) is
+ * recognized and not parsed.
+ *
+ * When the sample does change, its tweets are added to the results
+ * incrementally. Consecutive samples overlap heavily, so tweets already seen
+ * in earlier samples are dropped by a TweetDeduplicator before they reach
+ * the results.
+ *
+ * Safe for concurrent use: poll() may run on a scheduler thread while other
+ * threads read the results.
+ */
+public class PollingDaemon {
+
+    /** Time allowed to connect to the server, in milliseconds. */
+    private static final int CONNECT_TIMEOUT_MILLIS = 30_000;
+
+    /**
+     * Time allowed between bytes from the server, in milliseconds; the sample
+     * server may take up to a minute to answer while it refreshes.
+     */
+    private static final int READ_TIMEOUT_MILLIS = 120_000;
+
+    // cache metadata keys
+    private static final String ETAG = "etag";
+    private static final String LAST_MODIFIED = "last-modified";
+    private static final String DIGEST = "sha-256";
+
+    private final URL source;
+    private final Path body;
+    private final Path metadata;
+    private Properties validators = new Properties();
+    private final TweetDeduplicator seen = new TweetDeduplicator();
+    private final IncrementalExtract extract = new IncrementalExtract();
+    private final IncrementalSocialNetwork network = new IncrementalSocialNetwork();
+    private long polls = 0;
+    private long downloads = 0;
+    private long changes = 0;
+    /*
+     * Abstraction function:
+     *   represents the facts about every sample of tweets source has served
+     *   since the cache was first filled, with polls, downloads and changes
+     *   counting this daemon's requests, 200 responses and new samples
+     * Rep invariant:
+     *   if body exists, extract and network have accepted its tweets
+     *   if validators has a digest, it is the digest of body's content, and
+     *   its other validators are those body was last served with
+     */
+
+    /**
+     * Make a daemon, resuming from the cache if it holds a response from
+     * source.
+     *
+     * @param source URL of a server producing a JSON array of tweets
+     * @param cacheDirectory directory to keep the last response in; created
+     *                       if it does not exist, and may be shared with
+     *                       daemons polling other URLs
+     * @throws IOException if the cache cannot be read; a cached response that
+     *                     is not a JSON array of tweets is discarded instead,
+     *                     and the next poll downloads the sample again
+     */
+    public PollingDaemon(URL source, Path cacheDirectory) throws IOException {
+        this.source = source;
+        Files.createDirectories(cacheDirectory);
+        String key = Long.toHexString(Hashing.hash(source.toString()));
+        this.body = cacheDirectory.resolve(key + ".json");
+        this.metadata = cacheDirectory.resolve(key + ".properties");
+        if (Files.exists(metadata)) {
+            try (InputStream in = Files.newInputStream(metadata)) {
+                validators.load(in);
+            }
+        }
+        if (Files.exists(body)) {
+            List<Tweet> tweets;
+            try {
+                tweets = TweetStreamReader.readTweetsFromFile(body);
+            } catch (JsonException je) {
+                // an unusable cache is as good as none
+                Files.delete(body);
+                Files.deleteIfExists(metadata);
+                validators = new Properties();
+                return;
+            }
+            acceptAll(tweets);
+        }
+    }
+
+    /**
+     * Poll the server once.
+     *
+     * @return true iff the server sent a sample different from the last one,
+     *         and its tweets were added to the results
+     * @throws IOException if the server cannot be reached, answers with a
+     *                     status other than 200 or 304, or sends a response
+     *                     that is not a JSON array of tweets; the results and
+     *                     the cache are then unchanged
+     */
+    public synchronized boolean poll() throws IOException {
+        polls++;
+        HttpURLConnection connection = (HttpURLConnection) source.openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+        connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+        connection.setUseCaches(false);
+        if (validators.containsKey(ETAG)) {
+            connection.setRequestProperty("If-None-Match", validators.getProperty(ETAG));
+        }
+        if (validators.containsKey(LAST_MODIFIED)) {
+            connection.setRequestProperty("If-Modified-Since", validators.getProperty(LAST_MODIFIED));
+        }
+        try {
+            int status = connection.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                return false;
+            }
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("unexpected HTTP status " + status + " from " + source);
+            }
+            downloads++;
+            return download(connection);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /*
+     * Save a 200 response to the cache and accept its tweets if it is new.
+     */
+    private boolean download(HttpURLConnection connection) throws IOException {
+        Path partial = Files.createTempFile(body.getParent(), "download", ".part");
+        try {
+            MessageDigest sha256 = newDigest();
+            try (InputStream in = connection.getInputStream();
+                    OutputStream out = new DigestOutputStream(Files.newOutputStream(partial), sha256)) {
+                byte[] buffer = new byte[1 << 16];
+                for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+                    out.write(buffer, 0, n);
+                }
+            }
+            String digest = Base64.getEncoder().encodeToString(sha256.digest());
+
+            Properties received = new Properties();
+            received.setProperty(DIGEST, digest);
+            copyHeader(connection, "ETag", received, ETAG);
+            copyHeader(connection, "Last-Modified", received, LAST_MODIFIED);
+
+            boolean changed = !digest.equals(validators.getProperty(DIGEST));
+            List<Tweet> tweets = null;
+            if (changed) {
+                try {
+                    tweets = TweetStreamReader.readTweetsFromFile(partial); // parse before committing
+                } catch (JsonException je) {
+                    throw new IOException("malformed sample from " + source, je);
+                }
+                Files.move(partial, body, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            saveValidators(received);
+            if (changed) {
+                acceptAll(tweets);
+                changes++;
+            }
+            return changed;
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    private static void copyHeader(HttpURLConnection connection, String header,
+            Properties properties, String key) {
+        String value = connection.getHeaderField(header);
+        if (value != null) {
+            properties.setProperty(key, value);
+        }
+    }
+
+    private void saveValidators(Properties received) throws IOException {
+        Path partial = Files.createTempFile(metadata.getParent(), "metadata", ".part");
+        try {
+            try (OutputStream out = Files.newOutputStream(partial)) {
+                received.store(out, "validators of " + source);
+            }
+            Files.move(partial, metadata, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            validators = received;
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException nsae) {
+            throw new AssertionError("every JVM supports SHA-256", nsae);
+        }
+    }
+
+    private void acceptAll(List<Tweet> tweets) {
+        for (Tweet tweet : tweets) {
+            if (seen.add(tweet)) {
+                extract.accept(tweet);
+                network.accept(tweet);
+            }
+        }
+    }
+
+    /**
+     * @return Extract.getTimespan of every tweet served so far, or null if
+     *         there were none
+     */
+    public synchronized Timespan timespan() {
+        return extract.timespan();
+    }
+
+    /**
+     * @return Extract.getMentionedUsers of every tweet served so far, as a
+     *         new set
+     */
+    public synchronized Set<String> mentionedUsers() {
+        return extract.mentionedUsers();
+    }
+
+    /**
+     * @return SocialNetwork.guessFollowsGraph of every tweet served so far,
+     *         as a new map
+     */
+    public synchronized Map<String, Set<String>> followsGraph() {
+        return network.followsGraph();
+    }
+
+    /**
+     * @param k number of people to find, nonnegative
+     * @return SocialNetwork.influencers(followsGraph(), k)
+     */
+    public synchronized List<String> influencers(int k) {
+        return network.influencers(k);
+    }
+
+    /**
+     * @return number of tweets dropped as already seen in an earlier sample
+     *         (or, rarely, as a duplicate within one)
+     */
+    public synchronized long duplicates() {
+        return seen.duplicateCount();
+    }
+
+    /**
+     * @return number of times poll() has been called
+     */
+    public synchronized long polls() {
+        return polls;
+    }
+
+    /**
+     * @return number of polls that downloaded a response body
+     */
+    public synchronized long downloads() {
+        return downloads;
+    }
+
+    /**
+     * @return number of polls that found a new sample and parsed it
+     */
+    public synchronized long changes() {
+        return changes;
+    }
+}
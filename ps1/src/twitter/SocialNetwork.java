@@ -4,13 +4,17 @@
 package twitter;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.RandomAccess;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
 
 /**
  * SocialNetwork provides methods that operate on a social network.
@@ -30,6 +34,18 @@ import java.util.regex.Pattern;
  */
 public class SocialNetwork {
 
+    /*
+     * influencers(graph, k) selects with counting-sort buckets rather than a
+     * heap of size k when k is at least 1/BUCKET_DIVISOR of the users.
+     */
+    private static final int BUCKET_DIVISOR = 16;
+
+    /* guessFollowsGraph(tweets, pool) splits tweets into this many chunks per worker. */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /* Fewest tweets guessFollowsGraph(tweets, pool) scans as a separate chunk. */
+    private static final int MIN_CHUNK_SIZE = 1024;
+
     /**
      * Guess who might follow whom, from evidence found in tweets.
      * 
@@ -47,28 +63,108 @@ public class SocialNetwork {
      */
     public static Map<String, Set<String>> guessFollowsGraph(List<Tweet> tweets) {
         Map<String, Set<String>> graph = new HashMap<>();
-        
-        // Pattern to detect mentions
-        Pattern mentionPattern = Pattern.compile("@(\\w+)"); 
-        
+
         // Look for mentions
+        FollowsCollector collector = new FollowsCollector(graph);
         for (Tweet t : tweets) {
-            String author = t.getAuthor().toLowerCase();
-            String text = t.getText().toLowerCase();
-            
-            // Find mentions 
-            Matcher m = mentionPattern.matcher(text);
-            while (m.find()) {
-                String mentioned = m.group(1);
-                if (!mentioned.equals(author)) { // skip self-mentions
-                    // Add mentioned user to author's follow list
-                    graph.putIfAbsent(author, new HashSet<>());
-                    graph.get(author).add(mentioned);
+            collector.accept(t);
+        }
+
+        return graph;
+    }
+
+    /**
+     * Guess who might follow whom, as guessFollowsGraph does, scanning chunks
+     * of the tweets in parallel. Each chunk is scanned into its own graph,
+     * and the graphs are merged pairwise as the chunks complete.
+     * 
+     * @param tweets
+     *            a list of tweets providing the evidence, not modified by this
+     *            method.
+     * @param pool
+     *            pool to scan chunks on
+     * @return a social network equal to guessFollowsGraph(tweets)
+     */
+    public static Map<String, Set<String>> guessFollowsGraph(List<Tweet> tweets, ForkJoinPool pool) {
+        List<Tweet> indexed = tweets instanceof RandomAccess ? tweets : new ArrayList<>(tweets);
+        int chunkSize = Math.max(MIN_CHUNK_SIZE,
+                indexed.size() / (pool.getParallelism() * CHUNKS_PER_THREAD) + 1);
+        return pool.invoke(new GuessChunks(indexed, 0, indexed.size(), chunkSize));
+    }
+
+    /*
+     * Guesses the follows graph of tweets[lo, hi), splitting ranges longer
+     * than chunkSize in half and merging the halves' graphs.
+     */
+    private static class GuessChunks extends RecursiveTask<Map<String, Set<String>>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Tweet> tweets;
+        private final int lo;
+        private final int hi;
+        private final int chunkSize;
+
+        GuessChunks(List<Tweet> tweets, int lo, int hi, int chunkSize) {
+            this.tweets = tweets;
+            this.lo = lo;
+            this.hi = hi;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override protected Map<String, Set<String>> compute() {
+            if (hi - lo <= chunkSize) {
+                return guessFollowsGraph(tweets.subList(lo, hi));
+            }
+            int mid = (lo + hi) >>> 1;
+            GuessChunks left = new GuessChunks(tweets, lo, mid, chunkSize);
+            left.fork();
+            Map<String, Set<String>> right = new GuessChunks(tweets, mid, hi, chunkSize).compute();
+            return merge(left.join(), right);
+        }
+
+        /*
+         * @return a, with every edge of b added; the larger graph is reused
+         */
+        private static Map<String, Set<String>> merge(Map<String, Set<String>> a, Map<String, Set<String>> b) {
+            if (a.size() < b.size()) {
+                Map<String, Set<String>> swap = a;
+                a = b;
+                b = swap;
+            }
+            for (Map.Entry<String, Set<String>> entry : b.entrySet()) {
+                Set<String> follows = a.get(entry.getKey());
+                if (follows == null) {
+                    a.put(entry.getKey(), entry.getValue());
+                } else if (follows.size() < entry.getValue().size()) {
+                    entry.getValue().addAll(follows);
+                    a.put(entry.getKey(), entry.getValue());
+                } else {
+                    follows.addAll(entry.getValue());
                 }
             }
+            return a;
         }
+    }
 
-        return graph;
+    /**
+     * Guess who might follow whom, as guessFollowsGraph does, building the
+     * compact form of the social network directly.
+     * 
+     * @param tweets
+     *            a list of tweets providing the evidence, not modified by this
+     *            method.
+     * @return a social network with the same edges as
+     *         guessFollowsGraph(tweets), whose users are the usernames that
+     *         appear in those edges
+     */
+    public static FollowsGraph guessCompactFollowsGraph(List<Tweet> tweets) {
+        FollowsGraph.Builder builder = new FollowsGraph.Builder();
+        FollowsCollector collector = new FollowsCollector(builder::addFollows);
+        for (Tweet t : tweets) {
+            collector.accept(t);
+        }
+        return builder.build();
     }
 
     /**
@@ -81,22 +177,207 @@ public class SocialNetwork {
      *         descending order of follower count.
      */
     public static List<String> influencers(Map<String, Set<String>> followsGraph) {
-        Map<String, Integer> followers = new HashMap<>();
+        return influencers(followsGraph, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Find the k people in a social network who have the most followers.
+     * 
+     * @param followsGraph
+     *            a social network (as defined above)
+     * @param k
+     *            number of people to find, nonnegative
+     * @return the min(k, n) distinct Twitter usernames of followsGraph with the
+     *         most followers, where n is the number of distinct usernames in
+     *         followsGraph, in descending order of follower count; usernames
+     *         with equal follower counts are in ascending String order.
+     */
+    public static List<String> influencers(Map<String, Set<String>> followsGraph, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("negative k " + k);
+        }
 
-        // Count followers for each user
-        for (String follower : followsGraph.keySet()) {
-            for (String followed : followsGraph.get(follower)) {
-                followers.put(followed, followers.getOrDefault(followed, 0) + 1);
+        // Give every user a dense id and count followers by id
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        int[] followers = new int[16];
+        for (Map.Entry<String, Set<String>> entry : followsGraph.entrySet()) {
+            intern(entry.getKey(), ids, names);
+            for (String followed : entry.getValue()) {
+                int id = intern(followed, ids, names);
+                if (id >= followers.length) {
+                    followers = Arrays.copyOf(followers, Math.max(id + 1, followers.length * 2));
+                }
+                followers[id]++;
             }
-            
-            // Ensure everyone appears even if they follow but are not followed
-            followers.putIfAbsent(follower, followers.getOrDefault(follower, 0));
         }
 
-        // Sort by follower count (highest first)
-        List<String> sorted = new ArrayList<>(followers.keySet());
-        sorted.sort((a, b) -> followers.get(b) - followers.get(a));
+        // users seen only as followers may lie past the last one counted
+        followers = Arrays.copyOf(followers, Math.max(followers.length, names.size()));
+        return top(names.toArray(new String[names.size()]), followers, k);
+    }
 
-        return sorted;
+    /**
+     * Find the k people in a compact social network who have the most
+     * followers.
+     * 
+     * @param followsGraph
+     *            a social network
+     * @param k
+     *            number of people to find, nonnegative
+     * @return the same as influencers(followsGraph.toMap(), k)
+     */
+    public static List<String> influencers(FollowsGraph followsGraph, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("negative k " + k);
+        }
+        final int n = followsGraph.userCount();
+        String[] names = new String[n];
+        int[] followers = new int[n];
+        for (int id = 0; id < n; id++) {
+            names[id] = followsGraph.username(id);
+            followers[id] = followsGraph.followerCount(id);
+        }
+        return top(names, followers, k);
+    }
+
+    /*
+     * @return the top min(k, n) of users [0, n), n = names.length, in
+     *         descending order of followers[id], then ascending names[id]
+     */
+    private static List<String> top(String[] names, int[] followers, int k) {
+        final int n = names.length;
+        k = Math.min(k, n);
+        if (k == 0) {
+            return new ArrayList<>();
+        }
+        return k >= n / BUCKET_DIVISOR
+                ? topByBuckets(names, followers, n, k)
+                : topByHeap(names, followers, n, k);
+    }
+
+    private static int intern(String username, Map<String, Integer> ids, List<String> names) {
+        Integer id = ids.get(username);
+        if (id == null) {
+            id = names.size();
+            ids.put(username, id);
+            names.add(username);
+        }
+        return id;
+    }
+
+    /*
+     * @return true iff user a ranks strictly before user b: more followers,
+     *         or as many and a smaller username
+     */
+    private static boolean ranksBefore(int a, int b, String[] names, int[] followers) {
+        if (followers[a] != followers[b]) {
+            return followers[a] > followers[b];
+        }
+        return names[a].compareTo(names[b]) < 0;
+    }
+
+    /*
+     * Select the top k of users [0, n) with a bounded heap; O(n log k).
+     */
+    private static List<String> topByHeap(String[] names, int[] followers, int n, int k) {
+        int[] ids = TopK.select(n, k, (a, b) -> ranksBefore(a, b, names, followers));
+        List<String> top = new ArrayList<>(k);
+        for (int id : ids) {
+            top.add(names[id]);
+        }
+        return top;
+    }
+
+    /*
+     * Select the top k of users [0, n) by counting-sorting them on follower
+     * count, then sorting by name only within the buckets that are needed;
+     * O(n + max follower count) plus the name sorts.
+     */
+    private static List<String> topByBuckets(String[] names, int[] followers, int n, int k) {
+        int max = 0;
+        for (int id = 0; id < n; id++) {
+            max = Math.max(max, followers[id]);
+        }
+
+        // start[c] is where the users with c followers begin in byCount,
+        // which lists users in descending order of follower count
+        int[] start = new int[max + 2];
+        for (int id = 0; id < n; id++) {
+            start[max - followers[id] + 1]++;
+        }
+        for (int c = 1; c <= max + 1; c++) {
+            start[c] += start[c - 1];
+        }
+        int[] next = Arrays.copyOf(start, max + 1);
+        int[] byCount = new int[n];
+        for (int id = 0; id < n; id++) {
+            byCount[next[max - followers[id]]++] = id;
+        }
+
+        List<String> top = new ArrayList<>(k);
+        for (int b = 0; b <= max && top.size() < k; b++) {
+            String[] bucket = new String[start[b + 1] - start[b]];
+            for (int i = 0; i < bucket.length; i++) {
+                bucket[i] = names[byCount[start[b] + i]];
+            }
+            Arrays.sort(bucket);
+            for (int i = 0; i < bucket.length && top.size() < k; i++) {
+                top.add(bucket[i]);
+            }
+        }
+        return top;
+    }
+
+    /*
+     * Reports an edge author -> mentioned for every @-mention in a tweet, as
+     * found by TweetTokenizer, to a sink such as a follows graph. Reused across
+     * tweets so a scan allocates nothing beyond the usernames it records.
+     */
+    static class FollowsCollector implements TweetTokenizer.Handler {
+
+        private final BiConsumer<String, String> edges;
+        private String author;
+
+        /**
+         * @param graph social network to add edges to
+         */
+        FollowsCollector(Map<String, Set<String>> graph) {
+            this((follower, followed) -> {
+                Set<String> follows = graph.get(follower);
+                if (follows == null) {
+                    follows = new HashSet<>();
+                    graph.put(follower, follows);
+                }
+                follows.add(followed);
+            });
+        }
+
+        /**
+         * @param edges receives (follower, followed) for each edge found,
+         *              both lowercase and distinct, possibly more than once
+         */
+        FollowsCollector(BiConsumer<String, String> edges) {
+            this.edges = edges;
+        }
+
+        /**
+         * Report the follows evidence found in a tweet.
+         *
+         * @param tweet tweet to scan
+         */
+        void accept(Tweet tweet) {
+            author = tweet.getAuthor().toLowerCase(Locale.ROOT);
+            TweetTokenizer.tokenize(tweet.getText(), this);
+        }
+
+        @Override public boolean mention(String text, int start, int end) {
+            String mentioned = text.substring(start, end).toLowerCase(Locale.ROOT);
+            if (!mentioned.equals(author)) { // skip self-mentions
+                // Add mentioned user to author's follow list
+                edges.accept(author, mentioned);
+            }
+            return true;
+        }
     }
 }
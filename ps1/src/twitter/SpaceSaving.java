@@ -0,0 +1,186 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the most frequent strings of a stream with the Space-Saving algorithm
+ * (Metwally, Agrawal and El Abbadi), in a fixed number of counters. While
+ * fewer distinct strings than counters have been seen, counts are exact.
+ * After that, a new string takes over the counter with the smallest count
+ * and inherits that count as its possible overestimate, so every string
+ * occurring more than totalCount() / capacity times is guaranteed to be
+ * tracked, and each tracked count is at most error() above the truth.
+ *
+ * The counters are kept in a min-heap on count, so an update costs
+ * O(log capacity).
+ *
+ * Not safe for concurrent use.
+ */
+public class SpaceSaving {
+
+    private final String[] terms;
+    private final long[] counts;
+    private final long[] errors;
+    private final int[] heap;     // counter slots, min-heap on counts[]
+    private final int[] position; // position[slot] is slot's index in heap
+    private final Map<String, Integer> slots = new HashMap<>();
+    private int size = 0;
+    private long totalCount = 0;
+    /*
+     * Abstraction function:
+     *   represents a summary of a stream of totalCount strings in which
+     *   terms[s] was seen at most counts[s] and at least counts[s] - errors[s]
+     *   times, for each slot s < size, and any string not tracked was seen at
+     *   most minCount() times
+     * Rep invariant:
+     *   slots maps terms[s] to s for every s < size
+     *   heap[0..size) is a permutation of [0, size), a min-heap on counts[],
+     *   and heap[position[s]] == s
+     *   0 <= errors[s] < counts[s]
+     */
+
+    /**
+     * Make an empty summary.
+     *
+     * @param capacity number of counters, positive
+     */
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity " + capacity + " not positive");
+        }
+        terms = new String[capacity];
+        counts = new long[capacity];
+        errors = new long[capacity];
+        heap = new int[capacity];
+        position = new int[capacity];
+    }
+
+    /**
+     * @param term a string seen once more in the stream
+     */
+    public void add(String term) {
+        totalCount++;
+        Integer slot = slots.get(term);
+        if (slot != null) {
+            counts[slot]++;
+            siftDown(position[slot]);
+            return;
+        }
+        if (size < terms.length) {
+            int s = size++;
+            terms[s] = term;
+            counts[s] = 1;
+            errors[s] = 0;
+            heap[s] = s;
+            position[s] = s;
+            slots.put(term, s);
+            siftUp(s);
+            return;
+        }
+        // replace the smallest counter, which stays at the root until sifted
+        int s = heap[0];
+        slots.remove(terms[s]);
+        terms[s] = term;
+        errors[s] = counts[s];
+        counts[s]++;
+        slots.put(term, s);
+        siftDown(0);
+    }
+
+    /**
+     * @return number of strings added
+     */
+    public long totalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @return the count an untracked string can have at most: the smallest
+     *         tracked count once every counter is in use, otherwise 0
+     */
+    public long minCount() {
+        return size < terms.length ? 0 : counts[heap[0]];
+    }
+
+    /**
+     * @param term a string
+     * @return an upper bound on the number of times term was added
+     */
+    public long upperBound(String term) {
+        Integer slot = slots.get(term);
+        return slot == null ? minCount() : counts[slot];
+    }
+
+    /**
+     * @param term a string
+     * @return a lower bound on the number of times term was added
+     */
+    public long lowerBound(String term) {
+        Integer slot = slots.get(term);
+        return slot == null ? 0 : counts[slot] - errors[slot];
+    }
+
+    /**
+     * @return the strings currently tracked, in no particular order
+     */
+    public List<String> tracked() {
+        List<String> result = new ArrayList<>(size);
+        for (int s = 0; s < size; s++) {
+            result.add(terms[s]);
+        }
+        return result;
+    }
+
+    /**
+     * @param k number of strings to find, nonnegative
+     * @return up to k tracked strings in descending order of upper bound,
+     *         then ascending String order
+     */
+    public List<String> top(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("negative k " + k);
+        }
+        List<String> result = new ArrayList<>();
+        for (int s : TopK.select(size, k, (a, b) -> counts[a] != counts[b]
+                ? counts[a] > counts[b]
+                : terms[a].compareTo(terms[b]) < 0)) {
+            result.add(terms[s]);
+        }
+        return result;
+    }
+
+    private void siftUp(int i) {
+        int slot = heap[i];
+        while (i > 0 && counts[heap[(i - 1) / 2]] > counts[slot]) {
+            move(heap[(i - 1) / 2], i);
+            i = (i - 1) / 2;
+        }
+        move(slot, i);
+    }
+
+    private void siftDown(int i) {
+        int slot = heap[i];
+        for (int child = 2 * i + 1; child < size; child = 2 * i + 1) {
+            if (child + 1 < size && counts[heap[child + 1]] < counts[heap[child]]) {
+                child++;
+            }
+            if (counts[heap[child]] >= counts[slot]) {
+                break;
+            }
+            move(heap[child], i);
+            i = child;
+        }
+        move(slot, i);
+    }
+
+    private void move(int slot, int i) {
+        heap[i] = slot;
+        position[slot] = i;
+    }
+}
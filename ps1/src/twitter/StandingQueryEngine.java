@@ -0,0 +1,264 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Publish/subscribe engine for standing queries. Clients subscribe with a
+ * query built from the predicates of Filter (an author, a set of keywords, a
+ * time window, each optional) and a listener; every published tweet is
+ * delivered to the listener of each subscription whose query it matches.
+ *
+ * Subscriptions are indexed rather than evaluated one by one: each is filed
+ * under a single anchor, its author if it has one, otherwise each of its
+ * keywords, otherwise a catch-all list. A tweet is checked only against the
+ * subscriptions filed under its author and its words (plus the catch-all
+ * list), so routing cost depends on the tweet, not on the number of
+ * subscriptions.
+ *
+ * Safe for concurrent use; listeners run on the publishing thread while the
+ * engine is locked and must not call back into it.
+ */
+public class StandingQueryEngine {
+
+    // subscription columns, indexed by subscription id
+    private String[] authors = new String[16];
+    private Set<String>[] keywords = newSetArray(16);
+    private Instant[] windowStarts = new Instant[16];
+    private Instant[] windowEnds = new Instant[16];
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Consumer<Tweet>[] listeners = new Consumer[16];
+    private int[] seenAt = new int[16];
+    private int nextId = 0;
+    private int[] freeIds = new int[16];
+    private int freeCount = 0;
+    private int subscriptionCount = 0;
+    private int publishCount = 0;
+
+    private final Map<String, IntList> byAuthor = new HashMap<>();
+    private final Map<String, IntList> byKeyword = new HashMap<>();
+    private final IntList catchAll = new IntList();
+    /*
+     * Abstraction function:
+     *   represents the set of live subscriptions id in [0, nextId), not in
+     *   freeIds[0..freeCount), with query (authors[id], keywords[id],
+     *   [windowStarts[id], windowEnds[id]]) and listener listeners[id]; a null
+     *   author, keyword set or window bound places no constraint
+     * Rep invariant:
+     *   listeners[id] != null iff id is live
+     *   each live id appears in exactly one anchor list: byAuthor[authors[id]]
+     *   if authors[id] != null, else byKeyword[k] for every k in keywords[id]
+     *   if keywords[id] != null, else catchAll
+     *   authors and keywords are stored lowercased
+     *   seenAt[id] <= publishCount
+     */
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Set<String>[] newSetArray(int size) {
+        return new Set[size];
+    }
+
+    /**
+     * Register a standing query.
+     *
+     * @param author Twitter username whose tweets match, or null for any author
+     * @param words words of which a matching tweet must contain at least one,
+     *              as defined by Filter.containing, or null for any text
+     * @param window timespan (including its endpoints) in which a matching
+     *               tweet must have been sent, or null for any time
+     * @param listener receives every matching tweet published from now on
+     * @return an id for the subscription, to pass to unsubscribe()
+     */
+    public synchronized int subscribe(String author, Collection<String> words, Timespan window,
+            Consumer<Tweet> listener) {
+        int id = freeCount > 0 ? freeIds[--freeCount] : nextId++;
+        ensureCapacity(id + 1);
+        authors[id] = author == null ? null : author.toLowerCase(Locale.ROOT);
+        if (words == null) {
+            keywords[id] = null;
+        } else {
+            keywords[id] = new HashSet<>();
+            for (String word : words) {
+                keywords[id].add(TweetTokenizer.lowerCase(word));
+            }
+        }
+        windowStarts[id] = window == null ? null : window.getStart();
+        windowEnds[id] = window == null ? null : window.getEnd();
+        listeners[id] = listener;
+        seenAt[id] = publishCount;
+        subscriptionCount++;
+
+        if (authors[id] != null) {
+            anchor(byAuthor, authors[id]).add(id);
+        } else if (keywords[id] != null) {
+            for (String keyword : keywords[id]) {
+                anchor(byKeyword, keyword).add(id);
+            }
+        } else {
+            catchAll.add(id);
+        }
+        return id;
+    }
+
+    /**
+     * Remove a subscription; its listener receives no more tweets.
+     *
+     * @param id id returned by subscribe()
+     * @throws IllegalArgumentException if id is not a live subscription
+     */
+    public synchronized void unsubscribe(int id) {
+        if (id < 0 || id >= nextId || listeners[id] == null) {
+            throw new IllegalArgumentException("no subscription " + id);
+        }
+        if (authors[id] != null) {
+            remove(byAuthor, authors[id], id);
+        } else if (keywords[id] != null) {
+            for (String keyword : keywords[id]) {
+                remove(byKeyword, keyword, id);
+            }
+        } else {
+            removeFrom(catchAll, id);
+        }
+        authors[id] = null;
+        keywords[id] = null;
+        windowStarts[id] = null;
+        windowEnds[id] = null;
+        listeners[id] = null;
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = id;
+        subscriptionCount--;
+    }
+
+    /**
+     * @return number of live subscriptions
+     */
+    public synchronized int size() {
+        return subscriptionCount;
+    }
+
+    /**
+     * Route a tweet to the listeners of all subscriptions it matches.
+     *
+     * @param tweet tweet to publish
+     * @return number of subscriptions the tweet was delivered to
+     */
+    public synchronized int publish(Tweet tweet) {
+        final int stamp = ++publishCount;
+        final String author = tweet.getAuthor().toLowerCase(Locale.ROOT);
+        final Set<String> words = new HashSet<>();
+        TweetTokenizer.tokenize(tweet.getText(), new TweetTokenizer.Handler() {
+            @Override public boolean word(String text, int start, int end) {
+                words.add(TweetTokenizer.lowerCase(text.substring(start, end)));
+                return true;
+            }
+        });
+
+        int delivered = 0;
+        delivered += deliver(byAuthor.get(author), tweet, author, words, stamp);
+        for (String word : words) {
+            delivered += deliver(byKeyword.get(word), tweet, author, words, stamp);
+        }
+        delivered += deliver(catchAll, tweet, author, words, stamp);
+        return delivered;
+    }
+
+    /*
+     * Deliver tweet to each candidate subscription not yet seen for this
+     * publish that matches it.
+     *
+     * @return number of deliveries
+     */
+    private int deliver(IntList candidates, Tweet tweet, String author,
+            Set<String> words, int stamp) {
+        if (candidates == null) {
+            return 0;
+        }
+        int delivered = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            int id = candidates.get(i);
+            if (seenAt[id] == stamp) {
+                continue;
+            }
+            seenAt[id] = stamp;
+            if (matches(id, tweet, author, words)) {
+                listeners[id].accept(tweet);
+                delivered++;
+            }
+        }
+        return delivered;
+    }
+
+    private boolean matches(int id, Tweet tweet, String author, Set<String> words) {
+        if (authors[id] != null && !authors[id].equals(author)) {
+            return false;
+        }
+        Instant timestamp = tweet.getTimestamp();
+        if (windowStarts[id] != null
+                && (timestamp.isBefore(windowStarts[id]) || timestamp.isAfter(windowEnds[id]))) {
+            return false;
+        }
+        if (keywords[id] != null) {
+            Set<String> wanted = keywords[id];
+            Set<String> smaller = wanted.size() < words.size() ? wanted : words;
+            Set<String> larger = smaller == wanted ? words : wanted;
+            for (String word : smaller) {
+                if (larger.contains(word)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private static IntList anchor(Map<String, IntList> index, String key) {
+        IntList ids = index.get(key);
+        if (ids == null) {
+            ids = new IntList();
+            index.put(key, ids);
+        }
+        return ids;
+    }
+
+    private static void remove(Map<String, IntList> index, String key, int id) {
+        IntList ids = index.get(key);
+        removeFrom(ids, id);
+        if (ids.size() == 0) {
+            index.remove(key);
+        }
+    }
+
+    private static void removeFrom(IntList ids, int id) {
+        for (int i = 0; i < ids.size(); i++) {
+            if (ids.get(i) == id) {
+                ids.removeAt(i);
+                return;
+            }
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= authors.length) {
+            return;
+        }
+        int size = Math.max(capacity, authors.length * 2);
+        authors = Arrays.copyOf(authors, size);
+        keywords = Arrays.copyOf(keywords, size);
+        windowStarts = Arrays.copyOf(windowStarts, size);
+        windowEnds = Arrays.copyOf(windowEnds, size);
+        listeners = Arrays.copyOf(listeners, size);
+        seenAt = Arrays.copyOf(seenAt, size);
+    }
+}
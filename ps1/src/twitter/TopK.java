@@ -0,0 +1,93 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+/**
+ * Selects the k highest ranked of a set of int ids with a bounded heap, in
+ * O(n log k) time and O(k) space, without boxing the ids.
+ */
+class TopK {
+
+    /**
+     * A strict total order on ids, from highest to lowest ranked.
+     */
+    interface Ranking {
+
+        /**
+         * @param a an id
+         * @param b an id
+         * @return true iff a ranks strictly before b
+         */
+        boolean ranksBefore(int a, int b);
+    }
+
+    private TopK() {
+    }
+
+    /**
+     * @param n number of ids; the ids are [0, n)
+     * @param k number of ids to select, nonnegative
+     * @param ranking order of the ids
+     * @return the min(k, n) highest ranked ids, highest first
+     */
+    static int[] select(int n, int k, Ranking ranking) {
+        return select(null, n, k, ranking);
+    }
+
+    /**
+     * @param ids ids to select from, or null for the ids [0, count)
+     * @param count number of ids to select from: ids[0, count)
+     * @param k number of ids to select, nonnegative
+     * @param ranking order of the ids
+     * @return the min(k, count) highest ranked ids, highest first
+     */
+    static int[] select(int[] ids, int count, int k, Ranking ranking) {
+        k = Math.min(k, count);
+        // heap[0] is the lowest ranked of the best k ids seen so far
+        int[] heap = new int[k];
+        int size = 0;
+        for (int i = 0; i < count && k > 0; i++) {
+            int id = ids == null ? i : ids[i];
+            if (size < k) {
+                int at = size++;
+                while (at > 0 && ranking.ranksBefore(heap[(at - 1) / 2], id)) {
+                    heap[at] = heap[(at - 1) / 2];
+                    at = (at - 1) / 2;
+                }
+                heap[at] = id;
+            } else if (ranking.ranksBefore(id, heap[0])) {
+                siftDown(heap, size, id, ranking);
+            }
+        }
+
+        // pop the lowest ranked id into the last free slot until the heap is empty
+        int[] top = new int[k];
+        while (size > 0) {
+            top[--size] = heap[0];
+            siftDown(heap, size, heap[size], ranking);
+        }
+        return top;
+    }
+
+    /*
+     * Place id at the root of heap[0, size) and restore the heap order.
+     */
+    private static void siftDown(int[] heap, int size, int id, Ranking ranking) {
+        if (size == 0) {
+            return;
+        }
+        int at = 0;
+        for (int child = 1; child < size; child = 2 * at + 1) {
+            if (child + 1 < size && ranking.ranksBefore(heap[child], heap[child + 1])) {
+                child++;
+            }
+            if (!ranking.ranksBefore(id, heap[child])) {
+                break;
+            }
+            heap[at] = heap[child];
+            at = child;
+        }
+        heap[at] = id;
+    }
+}
@@ -0,0 +1,144 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Detects trending terms in a stream of tweets: terms that are markedly more
+ * frequent in the current window of time than in the window before it (the
+ * baseline).
+ *
+ * Terms are hashtags, reported as "#" plus the tag, and words as defined by
+ * Filter.containing of at least MIN_WORD_LENGTH characters that are not
+ * themselves hashtags or @-mentions, all lowercased. Each tweet's text is
+ * tokenized once. Frequencies in each window are summarized by a SpaceSaving
+ * summary of a fixed number of counters, so memory does not depend on the
+ * number of tweets or distinct terms.
+ *
+ * Windows are consecutive, fixed-width intervals of event time. When a tweet
+ * arrives for a later window, the current window becomes the baseline (or the
+ * baseline becomes empty if a whole window passed with no tweets) and a new
+ * window starts. Tweets for earlier windows are ignored.
+ *
+ * Not safe for concurrent use.
+ */
+public class TrendingTerms {
+
+    /** Shortest word counted as a term; shorter words are mostly stopwords. */
+    public static final int MIN_WORD_LENGTH = 3;
+
+    private final long windowMillis;
+    private final int capacity;
+    private final long minCount;
+    private long window = Long.MIN_VALUE; // index of the current window, or MIN_VALUE before any tweet
+    private SpaceSaving current;
+    private SpaceSaving baseline;
+    /*
+     * Abstraction function:
+     *   represents the term frequencies of tweets in window [window * windowMillis,
+     *   (window + 1) * windowMillis), summarized by current, and in the window
+     *   before it, summarized by baseline
+     * Rep invariant:
+     *   current and baseline have capacity counters
+     */
+
+    private final TweetTokenizer.Handler addTerms = new TweetTokenizer.Handler() {
+        @Override public boolean word(String text, int start, int end) {
+            char first = text.charAt(start);
+            if (end - start >= MIN_WORD_LENGTH && first != '#' && first != '@') {
+                current.add(TweetTokenizer.lowerCase(text.substring(start, end)));
+            }
+            return true;
+        }
+
+        @Override public boolean hashtag(String text, int start, int end) {
+            current.add(TweetTokenizer.lowerCase(text.substring(start - 1, end)));
+            return true;
+        }
+    };
+
+    /**
+     * Make an empty detector.
+     *
+     * @param window width of the current and baseline windows, at least 1 ms
+     * @param capacity counters per window, positive; terms occurring in more
+     *                 than 1 / capacity of a window's terms are always tracked
+     * @param minCount fewest times a term must occur in the current window
+     *                 to be reported as trending, positive
+     */
+    public TrendingTerms(Duration window, int capacity, long minCount) {
+        if (window.toMillis() <= 0 || capacity <= 0 || minCount <= 0) {
+            throw new IllegalArgumentException("bad window " + window + ", capacity " + capacity
+                    + " or minCount " + minCount);
+        }
+        this.windowMillis = window.toMillis();
+        this.capacity = capacity;
+        this.minCount = minCount;
+        this.current = new SpaceSaving(capacity);
+        this.baseline = new SpaceSaving(capacity);
+    }
+
+    /**
+     * Count the terms of a tweet in the window of its timestamp.
+     *
+     * @param tweet a tweet
+     */
+    public void accept(Tweet tweet) {
+        long index = Math.floorDiv(tweet.getTimestamp().toEpochMilli(), windowMillis);
+        if (window != Long.MIN_VALUE && index < window) {
+            return;
+        }
+        if (index > window) {
+            baseline = window != Long.MIN_VALUE && index == window + 1 ? current : new SpaceSaving(capacity);
+            current = new SpaceSaving(capacity);
+            window = index;
+        }
+        TweetTokenizer.tokenize(tweet.getText(), addTerms);
+    }
+
+    /**
+     * Find the terms accelerating the most.
+     *
+     * A term's acceleration is its share of the current window's terms
+     * (counting only occurrences the summary guarantees) divided by its share
+     * of the baseline's (counting every occurrence it might have had, plus
+     * one), so terms are reported only when the evidence that they grew is
+     * firm, and terms new since the baseline rank highest.
+     *
+     * @param k number of terms to find, nonnegative
+     * @return up to k terms occurring at least minCount times in the current
+     *         window, in descending order of acceleration, then ascending
+     *         String order
+     */
+    public List<String> trending(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("negative k " + k);
+        }
+        double currentTotal = Math.max(1, current.totalCount());
+        double baselineTotal = baseline.totalCount() + 1;
+        List<String> tracked = current.tracked();
+        final String[] terms = new String[tracked.size()];
+        final double[] scores = new double[tracked.size()];
+        int n = 0;
+        for (String term : tracked) {
+            long count = current.lowerBound(term);
+            if (count >= minCount) {
+                terms[n] = term;
+                scores[n] = (count / currentTotal) / ((baseline.upperBound(term) + 1) / baselineTotal);
+                n++;
+            }
+        }
+
+        List<String> result = new ArrayList<>();
+        for (int i : TopK.select(n, k, (a, b) -> scores[a] != scores[b]
+                ? scores[a] > scores[b]
+                : terms[a].compareTo(terms[b]) < 0)) {
+            result.add(terms[i]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,256 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Drops tweets already seen, by id (the only field Tweet.equals compares),
+ * in memory bounded by the tweets of a recent stretch of time rather than
+ * by all the tweets ever seen.
+ *
+ * Ids are kept with their tweets' timestamps in an open-addressing hash table
+ * of primitive longs (no boxing, no per-entry objects). Time is event time:
+ * the clock is the latest timestamp seen, and ids with timestamps more than
+ * the retention before it are evicted whenever the table is resized. Eviction
+ * makes dedup of older tweets approximate: with a Bloom filter, evicted ids
+ * move into it and an older tweet whose id it reports is dropped, so older
+ * duplicates are still dropped, at the cost of dropping the occasional new
+ * older tweet (a false positive). Without one, older tweets are always kept.
+ * Dedup of tweets within the retention is exact.
+ *
+ * The readers (TweetStreamReader, ParallelTweetDecoder, TweetSnapshot) return
+ * their input as it is, duplicates included; pass what they return through
+ * distinct() before it reaches Extract, Filter or SocialNetwork. One
+ * deduplicator should see every read whose tweets may overlap, such as
+ * consecutive polls of the same server.
+ *
+ * Not safe for concurrent use.
+ */
+public class TweetDeduplicator {
+
+    /** Retention used by the default constructor. */
+    public static final Duration DEFAULT_RETENTION = Duration.ofHours(2);
+
+    /** Older ids the default constructor's Bloom filter is sized for. */
+    public static final long DEFAULT_EXPECTED_OLDER_IDS = 1 << 20;
+
+    /** False-positive rate of the default constructor's Bloom filter. */
+    public static final double DEFAULT_FALSE_POSITIVE_RATE = 1e-3;
+
+    /** Fewest slots in the table; always a power of two. */
+    private static final int MIN_CAPACITY = 64;
+
+    private static final long EMPTY = Long.MIN_VALUE; // in times[], marks an empty slot
+
+    private final long retentionMillis;
+    private final LongBloomFilter older;
+    private long[] ids = new long[MIN_CAPACITY];
+    private long[] times = newTimes(MIN_CAPACITY);
+    private int size = 0;
+    private long clock = Long.MIN_VALUE;
+    private long duplicates = 0;
+    /*
+     * Abstraction function:
+     *   represents the set of ids seen so far: exactly the ids in the table,
+     *   plus, if older != null, approximately the ids in older
+     * Rep invariant:
+     *   ids.length == times.length, a power of two >= MIN_CAPACITY
+     *   size == number of slots s with times[s] != EMPTY, and 2 * size <= ids.length
+     *   each id in the table is in the first empty-free run of slots from
+     *   its home slot, home(id)
+     *   every id seen with timestamp >= clock - retentionMillis is in the table
+     */
+
+    /**
+     * Make a deduplicator with the default retention and a default-sized
+     * Bloom filter for older ids.
+     */
+    public TweetDeduplicator() {
+        this(DEFAULT_RETENTION, DEFAULT_EXPECTED_OLDER_IDS, DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * Make a deduplicator without a Bloom filter: tweets older than the
+     * retention are never dropped.
+     *
+     * @param retention how long before the latest tweet an id is kept
+     *                  exactly, nonnegative
+     */
+    public TweetDeduplicator(Duration retention) {
+        this(retention, null);
+    }
+
+    /**
+     * Make a deduplicator with a Bloom filter for older ids.
+     *
+     * @param retention how long before the latest tweet an id is kept
+     *                  exactly, nonnegative
+     * @param expectedOlderIds number of evicted ids the Bloom filter is
+     *                         sized for, positive
+     * @param falsePositiveRate chance that a new older tweet is dropped once
+     *                          expectedOlderIds ids have been evicted, in (0, 1)
+     */
+    public TweetDeduplicator(Duration retention, long expectedOlderIds, double falsePositiveRate) {
+        this(retention, new LongBloomFilter(expectedOlderIds, falsePositiveRate));
+    }
+
+    private TweetDeduplicator(Duration retention, LongBloomFilter older) {
+        if (retention.isNegative()) {
+            throw new IllegalArgumentException("negative retention " + retention);
+        }
+        this.retentionMillis = retention.toMillis();
+        this.older = older;
+    }
+
+    private static long[] newTimes(int capacity) {
+        long[] times = new long[capacity];
+        Arrays.fill(times, EMPTY);
+        return times;
+    }
+
+    /**
+     * Record a tweet, moving the clock forward to its timestamp if it is the
+     * latest yet.
+     *
+     * @param tweet a tweet
+     * @return true if the tweet is new and should be kept, false if it is a
+     *         duplicate (or, for a tweet older than the retention, might be)
+     */
+    public boolean add(Tweet tweet) {
+        return add(tweet.getId(), tweet.getTimestamp().toEpochMilli());
+    }
+
+    /**
+     * @param tweets tweets to record, in order
+     * @return the tweets for which add() returned true, in order
+     */
+    public List<Tweet> distinct(List<Tweet> tweets) {
+        List<Tweet> kept = new ArrayList<>(tweets.size());
+        for (Tweet tweet : tweets) {
+            if (add(tweet)) {
+                kept.add(tweet);
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * @param tweets tweets to record, in encounter order; made sequential,
+     *               since a deduplicator is not safe for concurrent use
+     * @return a lazy sequential stream of the tweets for which add() returns
+     *         true, in order; closing it closes tweets. It must not be made
+     *         parallel, which would apply to the whole pipeline.
+     */
+    public Stream<Tweet> distinct(Stream<Tweet> tweets) {
+        return tweets.sequential().filter(this::add);
+    }
+
+    /*
+     * add() by id and timestamp in epoch milliseconds.
+     */
+    boolean add(long id, long millis) {
+        clock = Math.max(clock, millis);
+        int mask = ids.length - 1;
+        int slot = home(id, mask);
+        while (times[slot] != EMPTY) {
+            if (ids[slot] == id) {
+                duplicates++;
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (millis < horizon()) {
+            // too old to keep exactly
+            if (older == null) {
+                return true;
+            }
+            if (older.mightContain(id)) {
+                duplicates++;
+                return false;
+            }
+            older.add(id);
+            return true;
+        }
+
+        ids[slot] = id;
+        times[slot] = millis;
+        size++;
+        if (2 * size > ids.length) {
+            rebuild();
+        }
+        return true;
+    }
+
+    private long horizon() {
+        // saturate, as the clock may start at MIN_VALUE
+        return clock < Long.MIN_VALUE + retentionMillis ? Long.MIN_VALUE : clock - retentionMillis;
+    }
+
+    private static int home(long id, int mask) {
+        return (int) Hashing.mix(id) & mask;
+    }
+
+    /*
+     * Evict ids older than the retention, then rehash the rest into a table
+     * at most a quarter full, so the next rebuild is at least capacity / 4
+     * insertions away.
+     */
+    private void rebuild() {
+        long horizon = horizon();
+        int kept = 0;
+        for (int s = 0; s < ids.length; s++) {
+            if (times[s] != EMPTY && times[s] >= horizon) {
+                kept++;
+            }
+        }
+        int capacity = MIN_CAPACITY;
+        while (capacity < 4L * kept) {
+            capacity <<= 1;
+        }
+
+        long[] oldIds = ids;
+        long[] oldTimes = times;
+        ids = new long[capacity];
+        times = newTimes(capacity);
+        size = kept;
+        int mask = capacity - 1;
+        for (int s = 0; s < oldIds.length; s++) {
+            if (oldTimes[s] == EMPTY) {
+                continue;
+            }
+            if (oldTimes[s] < horizon) {
+                if (older != null) {
+                    older.add(oldIds[s]);
+                }
+                continue;
+            }
+            int slot = home(oldIds[s], mask);
+            while (times[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            ids[slot] = oldIds[s];
+            times[slot] = oldTimes[s];
+        }
+    }
+
+    /**
+     * @return number of ids held exactly, which bounds the memory used
+     */
+    public int retainedCount() {
+        return size;
+    }
+
+    /**
+     * @return number of tweets add() has dropped as duplicates
+     */
+    public long duplicateCount() {
+        return duplicates;
+    }
+}
@@ -0,0 +1,466 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An index over a list of tweets that answers the queries of Filter without
+ * scanning every tweet. Tweets are identified by their ordinal, their position
+ * in the indexed list; every query returns its tweets in ordinal order, which
+ * is the order of the list.
+ *
+ * The word index maps each case-folded word (as defined by Filter.containing)
+ * to a postings list of the ordinals of the tweets containing it, stored as
+ * varint-encoded gaps between ascending ordinals.
+ *
+ * The author index canonicalizes each distinct author string once (usernames
+ * are case-insensitive) and maps the canonical username to the ascending
+ * ordinals of that user's tweets.
+ *
+ * The time index holds every tweet's timestamp, in nanoseconds since the
+ * epoch, sorted together with its ordinal, so that a timespan is found by two
+ * binary searches. Tweets added since the last time query are merged into it
+ * on the next one.
+ *
+ * Tweets may be appended with add(). Not safe for concurrent use while tweets
+ * are being appended.
+ */
+public class TweetIndex {
+
+    private final TweetStore tweets;
+    private final Map<String, Postings> wordPostings = new HashMap<>();
+    private final WordIndexer wordIndexer = new WordIndexer();
+    private final Map<String, IntList> authorPostings = new HashMap<>();
+    private IntList[] authorPostingsByCode = new IntList[16];
+    private long[] sortedTimes = new long[0];
+    private int[] sortedOrdinals = new int[0];
+    /*
+     * Abstraction function:
+     *   represents an index over the tweet list `tweets`
+     * Rep invariant:
+     *   wordPostings.get(w) holds exactly the ordinals of the tweets whose
+     *   text contains w (lowercased with TweetTokenizer.lowerCase) as a word
+     *   authorPostings.get(u) holds exactly the ordinals of the tweets whose
+     *   author, lowercased with Locale.ROOT, is u
+     *   authorPostingsByCode[c] == authorPostings.get(lowercased
+     *   tweets.authorOfCode(c)) for every c < tweets.authorCount()
+     *   sortedTimes.length == sortedOrdinals.length <= tweets.size()
+     *   sortedOrdinals is a permutation of 0..sortedOrdinals.length-1
+     *   sortedTimes is ascending, and sortedTimes[i] is the epoch-nanosecond
+     *   timestamp of tweet sortedOrdinals[i]
+     */
+
+    /**
+     * Make an empty index.
+     */
+    public TweetIndex() {
+        this.tweets = new TweetStore();
+    }
+
+    /**
+     * Make an index over a list of tweets.
+     *
+     * @param tweets tweets to index, not modified by this method
+     */
+    public TweetIndex(List<Tweet> tweets) {
+        this.tweets = new TweetStore(tweets.size());
+        for (Tweet tweet : tweets) {
+            add(tweet);
+        }
+    }
+
+    /**
+     * Append a tweet to the indexed list.
+     *
+     * @param tweet tweet to append
+     * @return the ordinal of the tweet
+     */
+    public int add(Tweet tweet) {
+        int ordinal = tweets.size();
+        tweets.add(tweet);
+        wordIndexer.ordinal = ordinal;
+        TweetTokenizer.tokenize(tweet.getText(), wordIndexer);
+        authorPostings(tweets.getAuthorCode(ordinal)).add(ordinal);
+        return ordinal;
+    }
+
+    /**
+     * @return number of tweets indexed
+     */
+    public int size() {
+        return tweets.size();
+    }
+
+    /**
+     * @return the indexed tweets, in ordinal order; must not be modified
+     */
+    public TweetStore tweets() {
+        return tweets;
+    }
+
+    /**
+     * Find tweets that contain certain words; same result as
+     * Filter.containing(tweets(), words).
+     *
+     * @param words a list of words to search for, as defined by Filter.containing
+     * @return all and only the indexed tweets whose text includes at least one
+     *         of the words, compared case-insensitively, in ordinal order
+     */
+    public List<Tweet> containing(List<String> words) {
+        return materialize(containingOrdinals(words));
+    }
+
+    /**
+     * @param words a list of words to search for, as defined by Filter.containing
+     * @return the set of ordinals of tweets containing at least one of words
+     */
+    OrdinalBitmap containingOrdinals(List<String> words) {
+        OrdinalBitmap result = new OrdinalBitmap();
+        for (String word : words) {
+            Postings postings = wordPostings.get(TweetTokenizer.lowerCase(word));
+            if (postings != null) {
+                result = result.isEmpty() ? postings.toBitmap() : result.or(postings.toBitmap());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param word a word, as defined by Filter.containing
+     * @return number of indexed tweets containing word
+     */
+    int wordFrequency(String word) {
+        Postings postings = wordPostings.get(TweetTokenizer.lowerCase(word));
+        return postings == null ? 0 : postings.size();
+    }
+
+    /*
+     * @return postings of the canonical form of the author with a TweetStore
+     *         author code, canonicalizing the author the first time it is seen
+     */
+    private IntList authorPostings(int code) {
+        if (code >= authorPostingsByCode.length) {
+            authorPostingsByCode = Arrays.copyOf(authorPostingsByCode,
+                    Math.max(code + 1, authorPostingsByCode.length * 2));
+        }
+        IntList postings = authorPostingsByCode[code];
+        if (postings == null) {
+            String canonical = tweets.authorOfCode(code).toLowerCase(Locale.ROOT);
+            postings = authorPostings.get(canonical);
+            if (postings == null) {
+                postings = new IntList();
+                authorPostings.put(canonical, postings);
+            }
+            authorPostingsByCode[code] = postings;
+        }
+        return postings;
+    }
+
+    /**
+     * Find tweets written by a particular user; same result as
+     * Filter.writtenBy(tweets(), username), in time proportional to the
+     * number of tweets found.
+     *
+     * @param username Twitter username, as defined by Tweet.getAuthor()'s spec
+     * @return all and only the indexed tweets whose author is username,
+     *         in ordinal order
+     */
+    public List<Tweet> writtenBy(String username) {
+        IntList postings = authorPostings.get(username.toLowerCase(Locale.ROOT));
+        if (postings == null) {
+            return new ArrayList<>();
+        }
+        List<Tweet> result = new ArrayList<>(postings.size());
+        for (int i = 0; i < postings.size(); i++) {
+            result.add(tweets.get(postings.get(i)));
+        }
+        return result;
+    }
+
+    /**
+     * @param username Twitter username
+     * @return the ordinals of the tweets written by username, ascending;
+     *         must not be modified
+     */
+    IntList writtenByOrdinals(String username) {
+        IntList postings = authorPostings.get(username.toLowerCase(Locale.ROOT));
+        return postings == null ? IntList.EMPTY : postings;
+    }
+
+    /**
+     * @param ordinal ordinal of an indexed tweet
+     * @return the ordinals of the tweets by the same user (case-insensitively)
+     *         as that tweet; the same object as writtenByOrdinals() returns
+     *         for that user
+     */
+    IntList authorOrdinalsOf(int ordinal) {
+        return authorPostingsByCode[tweets.getAuthorCode(ordinal)];
+    }
+
+    /**
+     * Find tweets that were sent during a particular timespan; same result as
+     * Filter.inTimespan(tweets(), timespan).
+     *
+     * @param timespan timespan, including its endpoints
+     * @return all and only the indexed tweets sent during timespan, in ordinal order
+     */
+    public List<Tweet> inTimespan(Timespan timespan) {
+        return materialize(inTimespanOrdinals(timespan));
+    }
+
+    /**
+     * @param timespan timespan, including its endpoints
+     * @return the set of ordinals of tweets sent during timespan
+     */
+    OrdinalBitmap inTimespanOrdinals(Timespan timespan) {
+        updateTimeIndex();
+        int from = firstAtOrAfter(epochNanos(timespan.getStart()));
+        int to = firstAfter(epochNanos(timespan.getEnd()));
+        return OrdinalBitmap.of(sortedOrdinals, from, to);
+    }
+
+    /**
+     * @param ordinal ordinal of an indexed tweet
+     * @param timespan timespan, including its endpoints
+     * @return true iff the tweet was sent during timespan
+     */
+    boolean sentDuring(int ordinal, Timespan timespan) {
+        Instant timestamp = tweets.getTimestamp(ordinal);
+        return !timestamp.isBefore(timespan.getStart()) && !timestamp.isAfter(timespan.getEnd());
+    }
+
+    /**
+     * @param timespan timespan, including its endpoints
+     * @return number of indexed tweets sent during timespan
+     */
+    int countInTimespan(Timespan timespan) {
+        updateTimeIndex();
+        return firstAfter(epochNanos(timespan.getEnd())) - firstAtOrAfter(epochNanos(timespan.getStart()));
+    }
+
+    /*
+     * @return instant in nanoseconds since the epoch, saturated to the long range
+     */
+    private static long epochNanos(Instant instant) {
+        long seconds = instant.getEpochSecond();
+        if (seconds >= Long.MAX_VALUE / 1_000_000_000L) {
+            return Long.MAX_VALUE;
+        } else if (seconds <= Long.MIN_VALUE / 1_000_000_000L) {
+            return Long.MIN_VALUE;
+        }
+        return seconds * 1_000_000_000L + instant.getNano();
+    }
+
+    /*
+     * @return least i such that sortedTimes[i] >= time, or sortedTimes.length
+     */
+    private int firstAtOrAfter(long time) {
+        int lo = 0;
+        int hi = sortedTimes.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedTimes[mid] < time) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /*
+     * @return least i such that sortedTimes[i] > time, or sortedTimes.length
+     */
+    private int firstAfter(long time) {
+        return time == Long.MAX_VALUE ? sortedTimes.length : firstAtOrAfter(time + 1);
+    }
+
+    /*
+     * Merge the tweets added since the last update into the sorted time index.
+     */
+    private void updateTimeIndex() {
+        final int old = sortedTimes.length;
+        final int size = tweets.size();
+        if (old == size) {
+            return;
+        }
+        final int added = size - old;
+        long[] newTimes = new long[added];
+        int[] newOrdinals = new int[added];
+        for (int i = 0; i < added; i++) {
+            newOrdinals[i] = old + i;
+            newTimes[i] = epochNanos(tweets.getTimestamp(old + i));
+        }
+        sortByTime(newTimes, newOrdinals, 0, added, new long[added], new int[added]);
+
+        long[] times = new long[size];
+        int[] ordinals = new int[size];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < size; k++) {
+            // ties go to the older entry, so equal times stay in ordinal order
+            if (j >= added || (i < old && sortedTimes[i] <= newTimes[j])) {
+                times[k] = sortedTimes[i];
+                ordinals[k] = sortedOrdinals[i++];
+            } else {
+                times[k] = newTimes[j];
+                ordinals[k] = newOrdinals[j++];
+            }
+        }
+        sortedTimes = times;
+        sortedOrdinals = ordinals;
+    }
+
+    /*
+     * Stable merge sort of times[from, to), permuting ordinals alongside.
+     * Already-sorted input, the usual case for tweets arriving in time order,
+     * costs one linear pass.
+     */
+    private static void sortByTime(long[] times, int[] ordinals, int from, int to,
+            long[] timeScratch, int[] ordinalScratch) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sortByTime(times, ordinals, from, mid, timeScratch, ordinalScratch);
+        sortByTime(times, ordinals, mid, to, timeScratch, ordinalScratch);
+        if (times[mid - 1] <= times[mid]) {
+            return;
+        }
+        System.arraycopy(times, from, timeScratch, from, to - from);
+        System.arraycopy(ordinals, from, ordinalScratch, from, to - from);
+        int i = from;
+        int j = mid;
+        for (int k = from; k < to; k++) {
+            if (j >= to || (i < mid && timeScratch[i] <= timeScratch[j])) {
+                times[k] = timeScratch[i];
+                ordinals[k] = ordinalScratch[i++];
+            } else {
+                times[k] = timeScratch[j];
+                ordinals[k] = ordinalScratch[j++];
+            }
+        }
+    }
+
+    /**
+     * Run a composite query.
+     *
+     * @param query query to run
+     * @return all and only the indexed tweets matched by query, in ordinal order
+     */
+    public List<Tweet> query(TweetQuery query) {
+        return materialize(query.evaluate(this));
+    }
+
+    /**
+     * @param query query to run
+     * @return number of indexed tweets matched by query
+     */
+    public int count(TweetQuery query) {
+        return query.evaluate(this).cardinality();
+    }
+
+    /**
+     * @param ordinals set of ordinals of indexed tweets
+     * @return the tweets with those ordinals, in ordinal order
+     */
+    List<Tweet> materialize(OrdinalBitmap ordinals) {
+        List<Tweet> result = new ArrayList<>(ordinals.cardinality());
+        ordinals.forEach(i -> result.add(tweets.get(i)));
+        return result;
+    }
+
+    /*
+     * Adds the ordinal of the tweet being indexed to the postings of each of its words.
+     */
+    private class WordIndexer implements TweetTokenizer.Handler {
+
+        int ordinal;
+
+        @Override public boolean word(String text, int start, int end) {
+            String word = TweetTokenizer.lowerCase(text.substring(start, end));
+            Postings postings = wordPostings.get(word);
+            if (postings == null) {
+                postings = new Postings();
+                wordPostings.put(word, postings);
+            }
+            postings.add(ordinal);
+            return true;
+        }
+    }
+
+    /*
+     * A growable, ascending list of ordinals compressed as varint gaps: each
+     * ordinal is stored as its difference from the previous one (the first
+     * as-is), 7 bits per byte, low bits first, high bit set on all but the
+     * last byte of a value.
+     */
+    static class Postings {
+
+        private byte[] data = new byte[4];
+        private int length = 0;
+        private int last = -1;
+        private int count = 0;
+
+        /**
+         * Append an ordinal, ignoring it if it is the last one added.
+         *
+         * @param ordinal ordinal >= every ordinal already added
+         */
+        void add(int ordinal) {
+            if (ordinal == last) {
+                return;
+            }
+            int gap = last < 0 ? ordinal : ordinal - last;
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            while ((gap & ~0x7F) != 0) {
+                data[length++] = (byte) ((gap & 0x7F) | 0x80);
+                gap >>>= 7;
+            }
+            data[length++] = (byte) gap;
+            last = ordinal;
+            count++;
+        }
+
+        /**
+         * @return a set of the ordinals in this list
+         */
+        OrdinalBitmap toBitmap() {
+            OrdinalBitmap bits = new OrdinalBitmap();
+            int ordinal = 0;
+            int i = 0;
+            boolean first = true;
+            while (i < length) {
+                int gap = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[i++];
+                    gap |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                ordinal = first ? gap : ordinal + gap;
+                first = false;
+                bits.add(ordinal);
+            }
+            return bits;
+        }
+
+        /**
+         * @return number of ordinals in this list
+         */
+        int size() {
+            return count;
+        }
+    }
+}
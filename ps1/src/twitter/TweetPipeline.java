@@ -0,0 +1,401 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import javax.json.JsonException;
+
+/**
+ * Runs the analysis done by Main as four concurrent stages connected by
+ * bounded queues, so analysis starts while tweets are still downloading:
+ *
+ *   ingest  reads raw bytes from the network into chunks
+ *   decode  parses tweets out of the chunks as they arrive, dropping
+ *           duplicates with a TweetDeduplicator
+ *   extract finds the timespan and the mentioned users
+ *   graph   guesses the follows graph, keeping a live leaderboard
+ *
+ * decode hands every tweet to both extract and graph. A full queue blocks its
+ * producer, so a slow stage slows the stages upstream of it rather than
+ * letting tweets pile up in memory. Each stage runs on its own thread.
+ *
+ * Ranking needs the whole graph, so it is not a concurrent stage: it runs on
+ * the graph thread after the last tweet, reading the top influencers off the
+ * leaderboard in O(k). It is timed separately, as "rank". Each of these five
+ * reports how many items it handled, how long it spent working on them, and
+ * how long after the start of the run it finished.
+ */
+public class TweetPipeline {
+
+    /** Bytes per chunk passed from ingest to decode. */
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    // end-of-stream markers, compared by identity
+    private static final byte[] END_OF_BYTES = new byte[0];
+    private static final Tweet END_OF_TWEETS = new Tweet(-1, "end", "", Instant.EPOCH);
+
+    private final int queueCapacity;
+    private final int influencerCount;
+
+    /**
+     * Make a pipeline.
+     *
+     * @param queueCapacity capacity of each queue between stages, positive
+     * @param influencerCount number of influencers to rank, nonnegative
+     */
+    public TweetPipeline(int queueCapacity, int influencerCount) {
+        if (queueCapacity <= 0 || influencerCount < 0) {
+            throw new IllegalArgumentException("bad queue capacity " + queueCapacity
+                    + " or influencer count " + influencerCount);
+        }
+        this.queueCapacity = queueCapacity;
+        this.influencerCount = influencerCount;
+    }
+
+    /**
+     * Fetch tweets from a web server and analyze them.
+     *
+     * @param url URL of a server producing a JSON array of tweets
+     * @return the analysis of the tweets
+     * @throws IOException if the server cannot be read
+     * @throws JsonException if the server's response is not a JSON array of tweets
+     */
+    public Result run(URL url) throws IOException {
+        try (InputStream in = url.openStream()) {
+            return run(in);
+        }
+    }
+
+    /**
+     * Analyze the tweets in a byte stream.
+     *
+     * @param in stream holding a JSON array of tweets, read to its end but
+     *           not closed
+     * @return the analysis of the tweets
+     * @throws IOException if the stream cannot be read
+     * @throws JsonException if the stream is not a JSON array of tweets
+     */
+    public Result run(InputStream in) throws IOException {
+        final long started = System.nanoTime();
+        final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(queueCapacity);
+        final BlockingQueue<Tweet> toExtract = new ArrayBlockingQueue<>(queueCapacity);
+        final BlockingQueue<Tweet> toGraph = new ArrayBlockingQueue<>(queueCapacity);
+        final Stage ingest = new Stage("ingest", started);
+        final Stage decode = new Stage("decode", started);
+        final Stage extract = new Stage("extract", started);
+        final Stage graph = new Stage("graph", started);
+        final Stage rank = new Stage("rank", started);
+        final TweetDeduplicator seen = new TweetDeduplicator();
+        final IncrementalExtract extraction = new IncrementalExtract();
+        final IncrementalSocialNetwork network = new IncrementalSocialNetwork();
+        final List<List<String>> influencers = new ArrayList<>();
+
+        List<Callable<Void>> stages = Arrays.asList(
+            () -> {
+                while (true) {
+                    byte[] buffer = new byte[CHUNK_SIZE];
+                    long begin = System.nanoTime();
+                    int n = in.read(buffer);
+                    ingest.worked(begin);
+                    if (n < 0) {
+                        break;
+                    }
+                    chunks.put(n == buffer.length ? buffer : Arrays.copyOf(buffer, n));
+                }
+                chunks.put(END_OF_BYTES);
+                ingest.finish();
+                return null;
+            },
+            () -> {
+                // the reader reads past the array to the end of the input, and
+                // rejects anything there but whitespace, so decode never stops
+                // early and leaves ingest blocked on a full queue
+                QueueInputStream bytes = new QueueInputStream(chunks);
+                try (Stream<Tweet> tweets = TweetStreamReader.streamTweets(bytes)) {
+                    // parsing pulls bytes as it goes, so time it between handoffs, less waits for bytes
+                    long handedOff = System.nanoTime();
+                    for (Tweet tweet : (Iterable<Tweet>) tweets::iterator) {
+                        boolean fresh = seen.add(tweet);
+                        decode.worked(handedOff + bytes.waitNanos);
+                        bytes.waitNanos = 0;
+                        if (fresh) {
+                            toExtract.put(tweet);
+                            toGraph.put(tweet);
+                        }
+                        handedOff = System.nanoTime();
+                    }
+                }
+                toExtract.put(END_OF_TWEETS);
+                toGraph.put(END_OF_TWEETS);
+                decode.finish();
+                return null;
+            },
+            () -> {
+                for (Tweet tweet = toExtract.take(); tweet != END_OF_TWEETS; tweet = toExtract.take()) {
+                    long begin = System.nanoTime();
+                    extraction.accept(tweet);
+                    extract.worked(begin);
+                }
+                extract.finish();
+                return null;
+            },
+            () -> {
+                for (Tweet tweet = toGraph.take(); tweet != END_OF_TWEETS; tweet = toGraph.take()) {
+                    long begin = System.nanoTime();
+                    network.accept(tweet);
+                    graph.worked(begin);
+                }
+                graph.finish();
+
+                // rank on this thread: it needs the finished graph, which is not safe to share
+                long begin = System.nanoTime();
+                influencers.add(network.influencers(influencerCount));
+                rank.worked(begin);
+                rank.finish();
+                return null;
+            });
+
+        ExecutorService executor = Executors.newFixedThreadPool(stages.size());
+        try {
+            // wait in order of completion, so a failed stage is seen even while
+            // the stages upstream of it are blocked on full queues
+            CompletionService<Void> running = new ExecutorCompletionService<>(executor);
+            for (Callable<Void> stage : stages) {
+                running.submit(stage);
+            }
+            for (int i = 0; i < stages.size(); i++) {
+                running.take().get();
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("pipeline interrupted");
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof UncheckedIOException || cause instanceof JsonException
+                    && cause.getCause() instanceof IOException) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("pipeline stage failed", cause);
+        } finally {
+            // interrupts the other stages if one failed
+            executor.shutdownNow();
+        }
+
+        return new Result(extraction.timespan(), extraction.mentionedUsers(),
+                network.followsGraph(), influencers.get(0), seen.duplicateCount(),
+                Arrays.asList(ingest, decode, extract, graph, rank));
+    }
+
+    /*
+     * Reads the chunks put on a queue by ingest, until END_OF_BYTES.
+     */
+    private static class QueueInputStream extends InputStream {
+
+        private final BlockingQueue<byte[]> chunks;
+        private byte[] chunk = new byte[0];
+        private int offset = 0;
+        long waitNanos = 0; // time spent blocked on the queue, reset by the reader
+
+        QueueInputStream(BlockingQueue<byte[]> chunks) {
+            this.chunks = chunks;
+        }
+
+        /*
+         * @return false at end of stream, else true with chunk[offset] readable
+         */
+        private boolean fill() throws IOException {
+            while (offset == chunk.length) {
+                if (chunk == END_OF_BYTES) {
+                    return false;
+                }
+                long begin = System.nanoTime();
+                try {
+                    chunk = chunks.take();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("decode interrupted");
+                }
+                waitNanos += System.nanoTime() - begin;
+                offset = 0;
+            }
+            return true;
+        }
+
+        @Override public int read() throws IOException {
+            return fill() ? chunk[offset++] & 0xff : -1;
+        }
+
+        @Override public int read(byte[] buffer, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int n = Math.min(len, chunk.length - offset);
+            System.arraycopy(chunk, offset, buffer, off, n);
+            offset += n;
+            return n;
+        }
+    }
+
+    /**
+     * Timing of one stage of a run, or of the ranking step that follows graph.
+     * Safe to read once the run has returned.
+     */
+    public static class Stage {
+
+        private final String name;
+        private final long runStarted;
+        private long items = 0;
+        private long busyNanos = 0;
+        private long finishedNanos = 0;
+
+        private Stage(String name, long runStarted) {
+            this.name = name;
+            this.runStarted = runStarted;
+        }
+
+        private void worked(long begin) {
+            items++;
+            busyNanos += System.nanoTime() - begin;
+        }
+
+        private void finish() {
+            finishedNanos = System.nanoTime() - runStarted;
+        }
+
+        /**
+         * @return name of the stage
+         */
+        public String name() {
+            return name;
+        }
+
+        /**
+         * @return number of items (chunks, tweets or rankings) the stage
+         *         handled; decode counts the duplicates it dropped
+         */
+        public long items() {
+            return items;
+        }
+
+        /**
+         * @return total time the stage spent working, not waiting on its
+         *         queues, in nanoseconds
+         */
+        public long busyNanos() {
+            return busyNanos;
+        }
+
+        /**
+         * @return time from the start of the run until the stage finished,
+         *         in nanoseconds
+         */
+        public long finishedNanos() {
+            return finishedNanos;
+        }
+
+        @Override public String toString() {
+            return String.format("%-8s %8d items %10.3f ms busy %10.3f ms to finish",
+                    name, items, busyNanos / 1e6, finishedNanos / 1e6);
+        }
+    }
+
+    /**
+     * The analysis of one run: the same facts Main prints, and stage timings.
+     */
+    public static class Result {
+
+        private final Timespan timespan;
+        private final Set<String> mentionedUsers;
+        private final Map<String, Set<String>> followsGraph;
+        private final List<String> influencers;
+        private final long duplicates;
+        private final List<Stage> stages;
+
+        private Result(Timespan timespan, Set<String> mentionedUsers, Map<String, Set<String>> followsGraph,
+                List<String> influencers, long duplicates, List<Stage> stages) {
+            this.timespan = timespan;
+            this.mentionedUsers = Collections.unmodifiableSet(mentionedUsers);
+            this.followsGraph = Collections.unmodifiableMap(followsGraph);
+            this.influencers = Collections.unmodifiableList(influencers);
+            this.duplicates = duplicates;
+            this.stages = Collections.unmodifiableList(stages);
+        }
+
+        /**
+         * @return Extract.getTimespan of the tweets, or null if there were none
+         */
+        public Timespan timespan() {
+            return timespan;
+        }
+
+        /**
+         * @return Extract.getMentionedUsers of the tweets, unmodifiable
+         */
+        public Set<String> mentionedUsers() {
+            return mentionedUsers;
+        }
+
+        /**
+         * @return SocialNetwork.guessFollowsGraph of the tweets, unmodifiable
+         */
+        public Map<String, Set<String>> followsGraph() {
+            return followsGraph;
+        }
+
+        /**
+         * @return SocialNetwork.influencers(followsGraph(), k) for the
+         *         pipeline's influencer count k, unmodifiable
+         */
+        public List<String> influencers() {
+            return influencers;
+        }
+
+        /**
+         * @return number of tweets decode dropped as duplicates of earlier
+         *         ones, as by TweetDeduplicator; the other results are over
+         *         the remaining tweets
+         */
+        public long duplicates() {
+            return duplicates;
+        }
+
+        /**
+         * @return timings of ingest, decode, extract, graph and rank, in that
+         *         order, unmodifiable
+         */
+        public List<Stage> stages() {
+            return stages;
+        }
+    }
+}
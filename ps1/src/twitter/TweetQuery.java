@@ -0,0 +1,298 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable query over tweets: a tree of conjunctions and disjunctions whose
+ * leaves are the predicates of Filter (author, timespan, words). Run against a
+ * TweetIndex with TweetIndex.query().
+ *
+ * A conjunction is planned by selectivity: its terms are ordered by their
+ * estimated number of matches, the most selective term is evaluated to a
+ * compressed bitmap of tweet ordinals, and each following term either
+ * intersects its own bitmap with the candidates or, when there are few
+ * candidates left, is checked against each candidate directly.
+ */
+public abstract class TweetQuery {
+
+    /*
+     * A term is checked tweet by tweet, rather than evaluated to a bitmap, when
+     * the candidates number fewer than its estimate divided by this factor.
+     */
+    private static final int PROBE_FACTOR = 4;
+
+    private TweetQuery() {
+    }
+
+    /**
+     * @param username Twitter username, as defined by Tweet.getAuthor()'s spec
+     * @return a query matching tweets written by username, as Filter.writtenBy
+     */
+    public static TweetQuery writtenBy(String username) {
+        return new WrittenBy(username);
+    }
+
+    /**
+     * @param timespan timespan, including its endpoints
+     * @return a query matching tweets sent during timespan, as Filter.inTimespan
+     */
+    public static TweetQuery inTimespan(Timespan timespan) {
+        return new InTimespan(timespan);
+    }
+
+    /**
+     * @param words words, as defined by Filter.containing
+     * @return a query matching tweets containing at least one of words, as
+     *         Filter.containing
+     */
+    public static TweetQuery containing(List<String> words) {
+        return new Containing(words);
+    }
+
+    /**
+     * @param terms queries to combine, at least one
+     * @return a query matching tweets matched by every one of terms
+     */
+    public static TweetQuery and(TweetQuery... terms) {
+        return new And(Arrays.asList(terms.clone()));
+    }
+
+    /**
+     * @param terms queries to combine, at least one
+     * @return a query matching tweets matched by at least one of terms
+     */
+    public static TweetQuery or(TweetQuery... terms) {
+        return new Or(Arrays.asList(terms.clone()));
+    }
+
+    /**
+     * @param index index to estimate against
+     * @return an upper bound on the number of indexed tweets this query matches
+     */
+    abstract int estimate(TweetIndex index);
+
+    /**
+     * @param index index to query
+     * @return the set of ordinals of indexed tweets this query matches
+     */
+    abstract OrdinalBitmap evaluate(TweetIndex index);
+
+    /**
+     * @param index index to query
+     * @param ordinal ordinal of an indexed tweet
+     * @return true iff this query matches that tweet
+     */
+    abstract boolean matches(TweetIndex index, int ordinal);
+
+    private static class WrittenBy extends TweetQuery {
+
+        private final String username;
+
+        WrittenBy(String username) {
+            this.username = username;
+        }
+
+        @Override int estimate(TweetIndex index) {
+            return index.writtenByOrdinals(username).size();
+        }
+
+        @Override OrdinalBitmap evaluate(TweetIndex index) {
+            IntList ordinals = index.writtenByOrdinals(username);
+            OrdinalBitmap result = new OrdinalBitmap();
+            for (int i = 0; i < ordinals.size(); i++) {
+                result.add(ordinals.get(i));
+            }
+            return result;
+        }
+
+        @Override boolean matches(TweetIndex index, int ordinal) {
+            return index.authorOrdinalsOf(ordinal) == index.writtenByOrdinals(username);
+        }
+
+        @Override public String toString() {
+            return "writtenBy(" + username + ")";
+        }
+    }
+
+    private static class InTimespan extends TweetQuery {
+
+        private final Timespan timespan;
+
+        InTimespan(Timespan timespan) {
+            this.timespan = timespan;
+        }
+
+        @Override int estimate(TweetIndex index) {
+            return index.countInTimespan(timespan);
+        }
+
+        @Override OrdinalBitmap evaluate(TweetIndex index) {
+            return index.inTimespanOrdinals(timespan);
+        }
+
+        @Override boolean matches(TweetIndex index, int ordinal) {
+            return index.sentDuring(ordinal, timespan);
+        }
+
+        @Override public String toString() {
+            return "inTimespan" + timespan;
+        }
+    }
+
+    private static class Containing extends TweetQuery {
+
+        private final List<String> words;
+        private final List<String> lowerWords;
+
+        Containing(List<String> words) {
+            this.words = Collections.unmodifiableList(new ArrayList<>(words));
+            List<String> lower = new ArrayList<>();
+            for (String word : words) {
+                lower.add(TweetTokenizer.lowerCase(word));
+            }
+            this.lowerWords = lower;
+        }
+
+        @Override int estimate(TweetIndex index) {
+            long total = 0;
+            for (String word : words) {
+                total += index.wordFrequency(word);
+            }
+            return (int) Math.min(total, index.size());
+        }
+
+        @Override OrdinalBitmap evaluate(TweetIndex index) {
+            return index.containingOrdinals(words);
+        }
+
+        @Override boolean matches(TweetIndex index, int ordinal) {
+            return !TweetTokenizer.tokenize(index.tweets().getText(ordinal), new TweetTokenizer.Handler() {
+                @Override public boolean word(String text, int start, int end) {
+                    for (String w : lowerWords) {
+                        if (TweetTokenizer.regionEqualsLowerCase(text, start, end, w)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+            });
+        }
+
+        @Override public String toString() {
+            return "containing" + words;
+        }
+    }
+
+    private static class And extends TweetQuery {
+
+        private final List<TweetQuery> terms;
+
+        And(List<TweetQuery> terms) {
+            if (terms.isEmpty()) {
+                throw new IllegalArgumentException("and() needs at least one term");
+            }
+            this.terms = terms;
+        }
+
+        @Override int estimate(TweetIndex index) {
+            int min = Integer.MAX_VALUE;
+            for (TweetQuery term : terms) {
+                min = Math.min(min, term.estimate(index));
+            }
+            return min;
+        }
+
+        @Override OrdinalBitmap evaluate(TweetIndex index) {
+            // plan: most selective term first
+            final int n = terms.size();
+            final int[] estimates = new int[n];
+            Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                estimates[i] = terms.get(i).estimate(index);
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingInt(i -> estimates[i]));
+
+            OrdinalBitmap candidates = terms.get(order[0]).evaluate(index);
+            for (int k = 1; k < n && !candidates.isEmpty(); k++) {
+                TweetQuery term = terms.get(order[k]);
+                if ((long) candidates.cardinality() * PROBE_FACTOR < estimates[order[k]]) {
+                    OrdinalBitmap kept = new OrdinalBitmap();
+                    candidates.forEach(ordinal -> {
+                        if (term.matches(index, ordinal)) {
+                            kept.add(ordinal);
+                        }
+                    });
+                    candidates = kept;
+                } else {
+                    candidates = candidates.and(term.evaluate(index));
+                }
+            }
+            return candidates;
+        }
+
+        @Override boolean matches(TweetIndex index, int ordinal) {
+            for (TweetQuery term : terms) {
+                if (!term.matches(index, ordinal)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override public String toString() {
+            return "and" + terms;
+        }
+    }
+
+    private static class Or extends TweetQuery {
+
+        private final List<TweetQuery> terms;
+
+        Or(List<TweetQuery> terms) {
+            if (terms.isEmpty()) {
+                throw new IllegalArgumentException("or() needs at least one term");
+            }
+            this.terms = terms;
+        }
+
+        @Override int estimate(TweetIndex index) {
+            long total = 0;
+            for (TweetQuery term : terms) {
+                total += term.estimate(index);
+            }
+            return (int) Math.min(total, index.size());
+        }
+
+        @Override OrdinalBitmap evaluate(TweetIndex index) {
+            OrdinalBitmap result = new OrdinalBitmap();
+            for (TweetQuery term : terms) {
+                if (term.estimate(index) > 0) {
+                    OrdinalBitmap matched = term.evaluate(index);
+                    result = result.isEmpty() ? matched : result.or(matched);
+                }
+            }
+            return result;
+        }
+
+        @Override boolean matches(TweetIndex index, int ordinal) {
+            for (TweetQuery term : terms) {
+                if (term.matches(index, ordinal)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override public String toString() {
+            return "or" + terms;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Saves and loads collections of tweets in a compact binary, column-oriented
+ * snapshot format, so that a collection can be reloaded without re-parsing
+ * JSON and timestamps.
+ *
+ * Layout (all numbers big-endian):
+ * <pre>
+ *   int     MAGIC, int VERSION, int n (number of tweets)
+ *   long[n] ids
+ *   long[n] timestamps, in epoch seconds
+ *   byte    1 if a nanos column follows, else 0
+ *   int[n]  nanosecond adjustments (only if flagged)
+ *   int     d (number of distinct authors), then d x (int length, UTF-8 bytes)
+ *   int[n]  author codes, indexes into the author dictionary
+ *   int[n+1] text offsets into the text blob
+ *   byte[]  text blob, every tweet's text in UTF-8
+ * </pre>
+ *
+ * Files are written and read through a fixed-size buffer, so a snapshot file
+ * may be larger than 2 GB. The text blob of one snapshot is limited to just
+ * under 2 GB, as TweetStore holds it in one byte array with int offsets.
+ * Lengths read from a file are checked against the bytes left in it before
+ * anything is allocated, and author codes and text offsets against the
+ * dictionary and the blob, so a corrupt file is an IOException.
+ */
+public class TweetSnapshot {
+
+    private static final int MAGIC = 0x54575331; // "TWS1"
+    private static final int VERSION = 1;
+
+    /** Bytes moved between the file and the columns at a time. */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Save tweets to a snapshot file, replacing the file if it exists.
+     *
+     * @param tweets tweets to save, not modified by this method
+     * @param path file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(List<Tweet> tweets, Path path) throws IOException {
+        TweetStore store = tweets instanceof TweetStore ? (TweetStore) tweets : TweetStore.copyOf(tweets);
+        final int n = store.size();
+        final int[] nanos = store.nanoColumn();
+        final int[] textOffsets = store.textOffsetColumn();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Out out = new Out(channel);
+            out.ints(new int[] { MAGIC, VERSION, n }, 3);
+            out.longs(store.idColumn(), n);
+            out.longs(store.secondColumn(), n);
+            out.bytes(new byte[] { (byte) (nanos != null ? 1 : 0) }, 1);
+            if (nanos != null) {
+                out.ints(nanos, n);
+            }
+            out.ints(new int[] { store.authorCount() }, 1);
+            for (int c = 0; c < store.authorCount(); c++) {
+                byte[] author = store.authorOfCode(c).getBytes(StandardCharsets.UTF_8);
+                out.ints(new int[] { author.length }, 1);
+                out.bytes(author, author.length);
+            }
+            out.ints(store.authorCodeColumn(), n);
+            out.ints(textOffsets, n + 1);
+            out.bytes(store.textBlob(), textOffsets[n]);
+            out.flush();
+        }
+    }
+
+    /**
+     * Load a snapshot written by save().
+     *
+     * @param path file to read
+     * @return a TweetStore holding the saved tweets, in the order they were
+     *         saved. Tweets are materialized lazily from the columns on get().
+     *         A snapshot reproduces exactly what was saved, so duplicates
+     *         saved are loaded too; callers must pass the store through
+     *         TweetDeduplicator.distinct() to drop them.
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public static TweetStore load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            In in = new In(channel, path);
+            if (in.remaining() < 3 * Integer.BYTES) {
+                throw new IOException("not a tweet snapshot: " + path);
+            }
+            int[] header = in.ints(3);
+            if (header[0] != MAGIC || header[1] != VERSION) {
+                throw new IOException("not a tweet snapshot: " + path);
+            }
+            final int n = header[2];
+            // the fixed-width columns must fit in the file before any is allocated
+            in.require(n < 0 ? -1 : 2L * n * Long.BYTES + 1 + Integer.BYTES
+                    + (long) n * Integer.BYTES + (n + 1L) * Integer.BYTES);
+            long[] ids = in.longs(n);
+            long[] seconds = in.longs(n);
+            int[] nanos = in.bytes(1)[0] != 0 ? in.ints(n) : null;
+            int authorCount = in.ints(1)[0];
+            in.require(authorCount < 0 ? -1 : (long) authorCount * Integer.BYTES);
+            String[] authors = new String[authorCount];
+            for (int i = 0; i < authors.length; i++) {
+                int length = in.ints(1)[0];
+                authors[i] = new String(in.bytes(length), StandardCharsets.UTF_8);
+            }
+            int[] authorCodes = in.ints(n);
+            int[] textOffsets = in.ints(n + 1);
+            // TweetStore trusts its columns, so check what get() will index with
+            for (int i = 0; i < n; i++) {
+                if (authorCodes[i] < 0 || authorCodes[i] >= authorCount
+                        || textOffsets[i + 1] < textOffsets[i]) {
+                    throw new IOException("corrupt tweet snapshot: " + path);
+                }
+            }
+            if (textOffsets[0] != 0) {
+                throw new IOException("corrupt tweet snapshot: " + path);
+            }
+            byte[] textBlob = in.bytes(textOffsets[n]);
+            return new TweetStore(ids, seconds, nanos, authors, authorCodes, textOffsets, textBlob);
+        }
+    }
+
+    /*
+     * Writes columns to a channel through a fixed-size buffer, so the file
+     * may be larger than any one buffer or array.
+     */
+    private static class Out {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.BIG_ENDIAN);
+
+        Out(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /*
+         * Write out the buffer if it has room for fewer than size more bytes.
+         */
+        private void makeRoom(int size) throws IOException {
+            if (buffer.remaining() < size) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        void longs(long[] values, int count) throws IOException {
+            for (int i = 0; i < count; ) {
+                makeRoom(Long.BYTES);
+                int k = Math.min(count - i, buffer.remaining() / Long.BYTES);
+                buffer.asLongBuffer().put(values, i, k);
+                buffer.position(buffer.position() + k * Long.BYTES);
+                i += k;
+            }
+        }
+
+        void ints(int[] values, int count) throws IOException {
+            for (int i = 0; i < count; ) {
+                makeRoom(Integer.BYTES);
+                int k = Math.min(count - i, buffer.remaining() / Integer.BYTES);
+                buffer.asIntBuffer().put(values, i, k);
+                buffer.position(buffer.position() + k * Integer.BYTES);
+                i += k;
+            }
+        }
+
+        void bytes(byte[] values, int count) throws IOException {
+            for (int i = 0; i < count; ) {
+                makeRoom(1);
+                int k = Math.min(count - i, buffer.remaining());
+                buffer.put(values, i, k);
+                i += k;
+            }
+        }
+    }
+
+    /*
+     * Reads columns from a channel through a fixed-size buffer, checking
+     * lengths read from the file against the bytes left in it before
+     * allocating, so a corrupt file is reported rather than exhausting memory.
+     */
+    private static class In {
+
+        private final FileChannel channel;
+        private final Path path;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.BIG_ENDIAN);
+        private long unread; // bytes of the file not yet in the buffer
+
+        In(FileChannel channel, Path path) throws IOException {
+            this.channel = channel;
+            this.path = path;
+            this.unread = channel.size();
+            buffer.limit(0);
+        }
+
+        /*
+         * @return bytes of the file not yet consumed
+         */
+        long remaining() {
+            return unread + buffer.remaining();
+        }
+
+        /*
+         * @return size, if it is a valid length of data left in the file
+         * @throws IOException if size is negative or more than is left
+         */
+        int require(long size) throws IOException {
+            if (size < 0 || size > remaining() || size > Integer.MAX_VALUE - 8) {
+                throw new IOException("corrupt tweet snapshot: " + path);
+            }
+            return (int) size;
+        }
+
+        /*
+         * Read until the buffer holds at least size bytes (size <= BUFFER_SIZE).
+         */
+        private void fill(int size) throws IOException {
+            if (buffer.remaining() >= size) {
+                return;
+            }
+            if (remaining() < size) {
+                throw new IOException("corrupt tweet snapshot: " + path);
+            }
+            buffer.compact();
+            while (buffer.position() < size) {
+                int read = channel.read(buffer);
+                if (read < 0) {
+                    throw new IOException("snapshot truncated: " + path);
+                }
+                unread -= read;
+            }
+            buffer.flip();
+        }
+
+        long[] longs(int count) throws IOException {
+            long[] values = new long[require((long) count * Long.BYTES) / Long.BYTES];
+            for (int i = 0; i < count; ) {
+                fill(Long.BYTES);
+                int k = Math.min(count - i, buffer.remaining() / Long.BYTES);
+                buffer.asLongBuffer().get(values, i, k);
+                buffer.position(buffer.position() + k * Long.BYTES);
+                i += k;
+            }
+            return values;
+        }
+
+        int[] ints(int count) throws IOException {
+            int[] values = new int[require((long) count * Integer.BYTES) / Integer.BYTES];
+            for (int i = 0; i < count; ) {
+                fill(Integer.BYTES);
+                int k = Math.min(count - i, buffer.remaining() / Integer.BYTES);
+                buffer.asIntBuffer().get(values, i, k);
+                buffer.position(buffer.position() + k * Integer.BYTES);
+                i += k;
+            }
+            return values;
+        }
+
+        byte[] bytes(int count) throws IOException {
+            byte[] values = new byte[require(count)];
+            for (int i = 0; i < count; ) {
+                fill(1);
+                int k = Math.min(count - i, buffer.remaining());
+                buffer.get(values, i, k);
+                i += k;
+            }
+            return values;
+        }
+    }
+}
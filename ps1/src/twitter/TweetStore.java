@@ -0,0 +1,282 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * A compact, append-only list of tweets stored column by column in primitive
+ * arrays: ids and epoch timestamps as longs, authors as int codes into a
+ * dictionary of distinct usernames, and text packed into one UTF-8 byte array.
+ *
+ * As a List<Tweet> it can be passed to Extract, Filter and SocialNetwork
+ * unchanged; get() builds a short-lived Tweet from the columns on each call.
+ * The column accessors let index structures read fields without building
+ * Tweets at all.
+ *
+ * Not safe for concurrent use while tweets are being appended.
+ */
+public class TweetStore extends AbstractList<Tweet> implements RandomAccess {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int size = 0;
+    private long[] ids;
+    private long[] seconds;
+    private int[] nanos; // null until some timestamp has a fractional second
+    private int[] authorCodes;
+    private String[] authors;
+    private int authorCount = 0;
+    private final Map<String, Integer> authorDictionary = new HashMap<>();
+    private int[] textOffsets;
+    private byte[] textBlob;
+    /*
+     * Abstraction function:
+     *   represents the list of tweets t_0..t_{size-1} where t_i has id ids[i],
+     *   timestamp seconds[i] + (nanos == null ? 0 : nanos[i]) ns past the epoch,
+     *   author authors[authorCodes[i]], and text the UTF-8 decoding of
+     *   textBlob[textOffsets[i], textOffsets[i+1])
+     * Rep invariant:
+     *   column arrays have length >= size (textOffsets >= size + 1)
+     *   textOffsets[0] = 0, textOffsets nondecreasing, textOffsets[size] <= textBlob.length
+     *   0 <= authorCodes[i] < authorCount
+     *   authorDictionary maps authors[c] to c for every c < authorCount
+     */
+
+    /**
+     * Make an empty store.
+     */
+    public TweetStore() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Make an empty store.
+     *
+     * @param capacity number of tweets to reserve room for
+     */
+    public TweetStore(int capacity) {
+        capacity = Math.max(capacity, 1);
+        this.ids = new long[capacity];
+        this.seconds = new long[capacity];
+        this.authorCodes = new int[capacity];
+        this.authors = new String[INITIAL_CAPACITY];
+        this.textOffsets = new int[capacity + 1];
+        this.textBlob = new byte[(int) Math.min((long) capacity * 16, Integer.MAX_VALUE - 8)];
+    }
+
+    /**
+     * Make a store from already-built columns, as read back by TweetSnapshot.
+     * The arrays are adopted, not copied.
+     */
+    TweetStore(long[] ids, long[] seconds, int[] nanos, String[] authors,
+            int[] authorCodes, int[] textOffsets, byte[] textBlob) {
+        this.size = ids.length;
+        this.ids = ids;
+        this.seconds = seconds;
+        this.nanos = nanos;
+        this.authors = authors.length == 0 ? new String[1] : authors;
+        this.authorCount = authors.length;
+        for (int c = 0; c < authors.length; c++) {
+            authorDictionary.put(authors[c], c);
+        }
+        this.authorCodes = authorCodes;
+        this.textOffsets = textOffsets;
+        this.textBlob = textBlob;
+    }
+
+    /**
+     * Make a store holding the given tweets.
+     *
+     * @param tweets tweets to copy, not modified by this method
+     * @return a store with the same tweets in the same order
+     */
+    public static TweetStore copyOf(List<Tweet> tweets) {
+        TweetStore store = new TweetStore(tweets.size());
+        store.addAll(tweets);
+        return store;
+    }
+
+    /**
+     * Append a tweet.
+     *
+     * @param tweet tweet to append
+     * @return true
+     */
+    @Override public boolean add(Tweet tweet) {
+        if (size == ids.length) {
+            int capacity = Math.max(size * 2, INITIAL_CAPACITY);
+            ids = Arrays.copyOf(ids, capacity);
+            seconds = Arrays.copyOf(seconds, capacity);
+            authorCodes = Arrays.copyOf(authorCodes, capacity);
+            textOffsets = Arrays.copyOf(textOffsets, capacity + 1);
+            if (nanos != null) {
+                nanos = Arrays.copyOf(nanos, capacity);
+            }
+        }
+
+        ids[size] = tweet.getId();
+        Instant timestamp = tweet.getTimestamp();
+        seconds[size] = timestamp.getEpochSecond();
+        if (timestamp.getNano() != 0 && nanos == null) {
+            nanos = new int[ids.length];
+        }
+        if (nanos != null) {
+            nanos[size] = timestamp.getNano();
+        }
+        authorCodes[size] = codeOf(tweet.getAuthor());
+
+        byte[] text = tweet.getText().getBytes(StandardCharsets.UTF_8);
+        int start = textOffsets[size];
+        if (start + text.length > textBlob.length) {
+            long capacity = Math.max((long) textBlob.length * 2, (long) start + text.length);
+            textBlob = Arrays.copyOf(textBlob, (int) Math.min(capacity, Integer.MAX_VALUE - 8));
+        }
+        System.arraycopy(text, 0, textBlob, start, text.length);
+        textOffsets[size + 1] = Math.addExact(start, text.length);
+
+        size++;
+        modCount++;
+        return true;
+    }
+
+    private int codeOf(String author) {
+        Integer code = authorDictionary.get(author);
+        if (code == null) {
+            code = authorCount;
+            if (authorCount == authors.length) {
+                authors = Arrays.copyOf(authors, authorCount * 2);
+            }
+            authors[authorCount++] = author;
+            authorDictionary.put(author, code);
+        }
+        return code;
+    }
+
+    @Override public Tweet get(int index) {
+        checkIndex(index);
+        return new Tweet(ids[index], authors[authorCodes[index]], getText(index), getTimestamp(index));
+    }
+
+    @Override public int size() {
+        return size;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+    }
+
+    /**
+     * @param index position of a tweet in this list
+     * @return id of the tweet at index
+     */
+    public long getId(int index) {
+        checkIndex(index);
+        return ids[index];
+    }
+
+    /**
+     * @param index position of a tweet in this list
+     * @return timestamp of the tweet at index, in whole seconds since the epoch
+     */
+    public long getEpochSecond(int index) {
+        checkIndex(index);
+        return seconds[index];
+    }
+
+    /**
+     * @param index position of a tweet in this list
+     * @return timestamp of the tweet at index
+     */
+    public Instant getTimestamp(int index) {
+        checkIndex(index);
+        return Instant.ofEpochSecond(seconds[index], nanos == null ? 0 : nanos[index]);
+    }
+
+    /**
+     * @param index position of a tweet in this list
+     * @return dictionary code of the author of the tweet at index, in
+     *         [0, authorCount()). Tweets share a code iff their authors are
+     *         equal strings.
+     */
+    public int getAuthorCode(int index) {
+        checkIndex(index);
+        return authorCodes[index];
+    }
+
+    /**
+     * @param index position of a tweet in this list
+     * @return author of the tweet at index
+     */
+    public String getAuthor(int index) {
+        return authors[getAuthorCode(index)];
+    }
+
+    /**
+     * @param index position of a tweet in this list
+     * @return text of the tweet at index
+     */
+    public String getText(int index) {
+        checkIndex(index);
+        int start = textOffsets[index];
+        return new String(textBlob, start, textOffsets[index + 1] - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return number of distinct authors in this store
+     */
+    public int authorCount() {
+        return authorCount;
+    }
+
+    /**
+     * @param code an author code in [0, authorCount())
+     * @return the author with that code
+     */
+    public String authorOfCode(int code) {
+        if (code < 0 || code >= authorCount) {
+            throw new IndexOutOfBoundsException("author code " + code);
+        }
+        return authors[code];
+    }
+
+    /*
+     * Column access for TweetSnapshot. The returned arrays are the store's own
+     * and may be longer than size(); callers must not modify them.
+     */
+
+    long[] idColumn() {
+        return ids;
+    }
+
+    long[] secondColumn() {
+        return seconds;
+    }
+
+    /** @return nanosecond column, or null if every timestamp is whole seconds */
+    int[] nanoColumn() {
+        return nanos;
+    }
+
+    int[] authorCodeColumn() {
+        return authorCodes;
+    }
+
+    int[] textOffsetColumn() {
+        return textOffsets;
+    }
+
+    byte[] textBlob() {
+        return textBlob;
+    }
+}
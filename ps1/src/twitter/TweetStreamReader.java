@@ -0,0 +1,345 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParser.Event;
+
+/**
+ * Streaming alternative to TweetReader. Pulls tweets one at a time out of a
+ * JSON array with a javax.json.stream.JsonParser, keeping only the four fields
+ * a Tweet needs (id, user.screen_name, text, created_at) and skipping every
+ * other value without building it. The whole array is never held in memory.
+ *
+ * The tweets produced are the same as TweetReader.readTweetsFromWeb() would
+ * produce for the same input, in the same order.
+ *
+ * Duplicate tweets (equal ids) in the input are produced as they are: whether
+ * a tweet is a duplicate depends on what else the caller has read, such as
+ * earlier samples from the same server, so dropping them is left to a
+ * TweetDeduplicator the caller keeps across reads. Callers feeding Extract,
+ * Filter or SocialNetwork must pass the tweets through
+ * TweetDeduplicator.distinct() first.
+ */
+public class TweetStreamReader {
+
+    /**
+     * Format of the created_at field, e.g. "Wed Feb 17 10:00:00 +0000 2016".
+     * DateTimeFormatter is immutable and thread-safe, so it is built once.
+     */
+    static final DateTimeFormatter CREATED_AT_FORMAT =
+            DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss Z yyyy", Locale.US);
+
+    /**
+     * Get a lazy stream of tweets from a web server.
+     *
+     * @param url URL of server to retrieve tweets from
+     * @return a sequential stream of the tweets served, decoded on demand.
+     *         The caller must close the stream to release the connection.
+     * @throws IOException if the url is invalid, the server is unreachable,
+     *                     or some other network-related error occurs.
+     */
+    public static Stream<Tweet> streamTweetsFromWeb(URL url) throws IOException {
+        return streamTweets(url.openStream());
+    }
+
+    /**
+     * Get a list of tweets from a local file. The file is memory-mapped and
+     * decoded as UTF-8 directly from the mapping, a window at a time, so files
+     * larger than 2 GB are supported and the raw bytes never reach the heap.
+     *
+     * @param path file holding a JSON array of tweets, encoded in UTF-8
+     * @return a list of the tweets in the file, in file order
+     * @throws IOException if the file cannot be read or is not valid UTF-8
+     */
+    public static List<Tweet> readTweetsFromFile(Path path) throws IOException {
+        try (Stream<Tweet> tweets = streamTweetsFromFile(path)) {
+            return tweets.collect(Collectors.toList());
+        } catch (UncheckedIOException uioe) {
+            throw uioe.getCause();
+        } catch (JsonException je) {
+            if (je.getCause() instanceof IOException) {
+                throw (IOException) je.getCause();
+            }
+            throw je;
+        }
+    }
+
+    /**
+     * Get a lazy stream of tweets from a local file, memory-mapped as by
+     * readTweetsFromFile().
+     *
+     * @param path file holding a JSON array of tweets, encoded in UTF-8
+     * @return a sequential stream of the tweets in the file, decoded on demand.
+     *         The caller must close the stream to release the file.
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public static Stream<Tweet> streamTweetsFromFile(Path path) throws IOException {
+        return streamTweets(new MappedFileReader(path));
+    }
+
+    /**
+     * Get a lazy stream of tweets from a byte stream holding a JSON array of
+     * tweets. The character encoding is detected as required by the JSON spec.
+     *
+     * @param in stream to read from; closed when the returned stream is closed
+     * @return a sequential stream of the tweets in the array, decoded on demand
+     */
+    public static Stream<Tweet> streamTweets(InputStream in) {
+        return toStream(new TweetIterator(Json.createParser(in), in));
+    }
+
+    /**
+     * Get a lazy stream of tweets from a character stream holding a JSON array
+     * of tweets.
+     *
+     * @param reader reader to read from; closed when the returned stream is closed
+     * @return a sequential stream of the tweets in the array, decoded on demand
+     */
+    public static Stream<Tweet> streamTweets(Reader reader) {
+        return toStream(new TweetIterator(Json.createParser(reader), reader));
+    }
+
+    /**
+     * Get a lazy iterator over the tweets in a character stream holding a JSON
+     * array of tweets. The reader is closed once the iterator is exhausted.
+     *
+     * @param reader reader to read from
+     * @return an iterator over the tweets in the array, decoded on demand
+     * @throws JsonException if the input is not a JSON array of tweets
+     */
+    public static Iterator<Tweet> iterateTweets(Reader reader) {
+        return new TweetIterator(Json.createParser(reader), reader);
+    }
+
+    private static Stream<Tweet> toStream(TweetIterator iterator) {
+        Spliterator<Tweet> spliterator = Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+        return StreamSupport.stream(spliterator, false).onClose(iterator::close);
+    }
+
+    /**
+     * Make a Tweet from the raw field values of one tweet object.
+     *
+     * @param id decimal tweet id
+     * @param screenName author's username
+     * @param text tweet text
+     * @param createdAt timestamp in CREATED_AT_FORMAT
+     * @return the tweet
+     * @throws JsonException if a field is missing, id is not a decimal long,
+     *                       or createdAt is not in CREATED_AT_FORMAT
+     */
+    static Tweet makeTweet(String id, String screenName, String text, String createdAt) {
+        if (id == null || screenName == null || text == null || createdAt == null) {
+            throw new JsonException("tweet is missing one of id, user.screen_name, text, created_at");
+        }
+        try {
+            Instant timestamp = ZonedDateTime.parse(createdAt, CREATED_AT_FORMAT).toInstant();
+            return new Tweet(Long.parseLong(id), screenName, text, timestamp);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new JsonException("malformed id or created_at in tweet " + id, e);
+        }
+    }
+
+    /*
+     * Pulls one tweet object at a time out of the top-level array.
+     *
+     * Only keys at depth 1 of a tweet object are looked at, plus screen_name
+     * inside a depth-1 "user" object; a literal "user.screen_name" key at depth 1
+     * is accepted too, since that is how TweetReader addresses the field.
+     */
+    private static class TweetIterator implements Iterator<Tweet>, Closeable {
+
+        private final JsonParser parser;
+        private final Closeable source;
+        private boolean started = false;
+        private boolean finished = false;
+        private Tweet next = null;
+
+        TweetIterator(JsonParser parser, Closeable source) {
+            this.parser = parser;
+            this.source = source;
+        }
+
+        @Override public boolean hasNext() {
+            if (next == null && !finished) {
+                next = advance();
+            }
+            return next != null;
+        }
+
+        @Override public Tweet next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Tweet tweet = next;
+            next = null;
+            return tweet;
+        }
+
+        @Override public void close() {
+            finished = true;
+            parser.close();
+            try {
+                source.close();
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            }
+        }
+
+        /*
+         * @return the next tweet in the array, or null (and closes) at its end
+         */
+        private Tweet advance() {
+            if (!started) {
+                started = true;
+                if (!parser.hasNext() || parser.next() != Event.START_ARRAY) {
+                    throw new JsonException("expected a JSON array of tweets");
+                }
+            }
+            if (!parser.hasNext()) {
+                throw new JsonException("unterminated JSON array of tweets");
+            }
+            Event event = parser.next();
+            if (event == Event.END_ARRAY) {
+                if (parser.hasNext()) {
+                    throw new JsonException("unexpected data after the JSON array of tweets");
+                }
+                close();
+                return null;
+            }
+            if (event != Event.START_OBJECT) {
+                throw new JsonException("expected a tweet object but found " + event);
+            }
+            return readTweetObject();
+        }
+
+        /*
+         * Read the rest of a tweet object whose START_OBJECT was just consumed.
+         */
+        private Tweet readTweetObject() {
+            String id = null;
+            String screenName = null;
+            String text = null;
+            String createdAt = null;
+
+            Event event;
+            while ((event = parser.next()) != Event.END_OBJECT) {
+                String key = parser.getString(); // event is KEY_NAME
+                event = parser.next();
+                switch (key) {
+                case "id":
+                    id = scalar(event);
+                    break;
+                case "text":
+                    text = scalar(event);
+                    break;
+                case "created_at":
+                    createdAt = scalar(event);
+                    break;
+                case "user.screen_name":
+                    screenName = scalar(event);
+                    break;
+                case "user":
+                    if (event == Event.START_OBJECT) {
+                        String name = readScreenName();
+                        if (name != null) {
+                            screenName = name;
+                        }
+                    } else {
+                        skip(event);
+                    }
+                    break;
+                default:
+                    skip(event);
+                }
+            }
+            return makeTweet(id, screenName, text, createdAt);
+        }
+
+        /*
+         * Read the rest of a user object, returning its screen_name if any.
+         */
+        private String readScreenName() {
+            String screenName = null;
+            Event event;
+            while ((event = parser.next()) != Event.END_OBJECT) {
+                String key = parser.getString();
+                event = parser.next();
+                if (key.equals("screen_name")) {
+                    screenName = scalar(event);
+                } else {
+                    skip(event);
+                }
+            }
+            return screenName;
+        }
+
+        /*
+         * @return the text of a scalar value; nested values are skipped and
+         *         yield null
+         */
+        private String scalar(Event event) {
+            switch (event) {
+            case VALUE_STRING:
+            case VALUE_NUMBER:
+                return parser.getString();
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+            case VALUE_NULL:
+                return null;
+            default:
+                skip(event);
+                return null;
+            }
+        }
+
+        /*
+         * Skip the value that starts with event, including any nested values.
+         */
+        private void skip(Event event) {
+            if (event != Event.START_OBJECT && event != Event.START_ARRAY) {
+                return;
+            }
+            int depth = 1;
+            while (depth > 0) {
+                switch (parser.next()) {
+                case START_OBJECT:
+                case START_ARRAY:
+                    depth++;
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    depth--;
+                    break;
+                default:
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Locale;
+
+/**
+ * Hand-written, allocation-free scanner for tweet text. One left-to-right pass
+ * reports, as index ranges into the text:
+ *   - words: maximal runs of non-whitespace characters (the word definition
+ *     used by Filter.containing);
+ *   - @-mentions: "@" followed by a Twitter username (as defined by
+ *     Tweet.getAuthor()'s spec), where the "@" is not immediately preceded by
+ *     a username character (the definition used by Extract.getMentionedUsers);
+ *   - hashtags: "#" followed by letters, digits or underscores, where the "#"
+ *     is not immediately preceded by one of those characters.
+ * Tokens are never copied out of the text; a handler that needs a String
+ * builds one itself.
+ */
+class TweetTokenizer {
+
+    /**
+     * Receives tokens from tokenize(). Each method gets the scanned text and
+     * the token's range text[start, end), excluding any "@" or "#" prefix, and
+     * returns true to keep scanning or false to stop.
+     */
+    interface Handler {
+
+        default boolean word(String text, int start, int end) {
+            return true;
+        }
+
+        default boolean mention(String text, int start, int end) {
+            return true;
+        }
+
+        default boolean hashtag(String text, int start, int end) {
+            return true;
+        }
+    }
+
+    /**
+     * Scan text once, reporting its words, mentions and hashtags to handler in
+     * order of their end positions.
+     *
+     * @param text text to scan
+     * @param handler receiver of tokens
+     * @return true if the whole text was scanned, false if handler stopped it
+     */
+    static boolean tokenize(String text, Handler handler) {
+        final int length = text.length();
+        int wordStart = -1;
+        int mentionStart = -1;
+        int hashtagStart = -1;
+        boolean prevUsernameChar = false;
+        boolean prevHashtagChar = false;
+
+        for (int i = 0; i < length; i++) {
+            final char c = text.charAt(i);
+            final boolean usernameChar = isUsernameChar(c);
+            final boolean hashtagChar = isHashtagChar(c);
+
+            if (mentionStart >= 0 && !usernameChar) {
+                if (i > mentionStart && !handler.mention(text, mentionStart, i)) {
+                    return false;
+                }
+                mentionStart = -1;
+            }
+            if (hashtagStart >= 0 && !hashtagChar) {
+                if (i > hashtagStart && !handler.hashtag(text, hashtagStart, i)) {
+                    return false;
+                }
+                hashtagStart = -1;
+            }
+
+            if (isSpace(c)) {
+                if (wordStart >= 0 && !handler.word(text, wordStart, i)) {
+                    return false;
+                }
+                wordStart = -1;
+            } else if (wordStart < 0) {
+                wordStart = i;
+            }
+
+            if (c == '@' && !prevUsernameChar) {
+                mentionStart = i + 1;
+            } else if (c == '#' && !prevHashtagChar) {
+                hashtagStart = i + 1;
+            }
+            prevUsernameChar = usernameChar;
+            prevHashtagChar = hashtagChar;
+        }
+
+        if (mentionStart >= 0 && length > mentionStart && !handler.mention(text, mentionStart, length)) {
+            return false;
+        }
+        if (hashtagStart >= 0 && length > hashtagStart && !handler.hashtag(text, hashtagStart, length)) {
+            return false;
+        }
+        if (wordStart >= 0 && !handler.word(text, wordStart, length)) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return true iff c may appear in a Twitter username: A-Z, a-z, 0-9, _ or -
+     */
+    static boolean isUsernameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '_' || c == '-';
+    }
+
+    /**
+     * @return true iff c may appear in a hashtag
+     */
+    static boolean isHashtagChar(char c) {
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+
+    /**
+     * @return true iff c separates words; the same characters as \s in
+     *         java.util.regex: space, \t, \n, \x0B, \f, \r
+     */
+    static boolean isSpace(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+
+    /**
+     * Lowercase a string the way the original Filter.containing did, so the
+     * fast paths below give the same answers it gave.
+     *
+     * @param s string to lowercase
+     * @return s.toLowerCase(Locale.ROOT)
+     */
+    static String lowerCase(String s) {
+        return s.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Compares ASCII text one char at a time without copying it. Text with any
+     * non-ASCII char is lowercased as a whole string instead, because
+     * String.toLowerCase is not per-char there: U+0130 becomes two chars, and
+     * a word-final capital sigma becomes a final sigma.
+     *
+     * @param text text holding a token
+     * @param start start of the token in text
+     * @param end end of the token in text
+     * @param lower a string produced by lowerCase()
+     * @return true iff lowerCase(text[start, end)) equals lower
+     */
+    static boolean regionEqualsLowerCase(String text, int start, int end, String lower) {
+        for (int i = start, j = 0; i < end; i++, j++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                return lowerCase(text.substring(start, end)).equals(lower);
+            }
+            if (j == lower.length() || Character.toLowerCase(c) != lower.charAt(j)) {
+                return false;
+            }
+        }
+        return end - start == lower.length();
+    }
+}
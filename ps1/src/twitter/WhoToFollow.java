@@ -0,0 +1,298 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * "Who to follow" recommendations over a social network: a user is
+ * recommended the users two hops away, who follow the same users they do,
+ * ranked by the number of followees they share. Users already followed, and
+ * the user itself, are never recommended.
+ *
+ * A query walks user -> followee -> followee's followers over the compressed
+ * arrays of a FollowsGraph, counting in a primitive int array that is reused
+ * from query to query. The recommender keeps as many of these as queries have
+ * run on it at once, and they are freed with it.
+ *
+ * A followee with more than maxFanout followers (a hub) contributes an evenly
+ * strided sample of about maxFanout of them, which bounds the cost of a query
+ * no matter how popular the users it follows are; counts through hubs are
+ * then underestimates.
+ *
+ * Safe for concurrent use.
+ */
+public class WhoToFollow {
+
+    /** Most followers of one followee a query visits, by default. */
+    public static final int DEFAULT_MAX_FANOUT = 1000;
+
+    /** Users per task in recommendAll(). */
+    private static final int USERS_PER_TASK = 256;
+
+    private final FollowsGraph graph;
+    private final int maxFanout;
+    private final Queue<Scratch> spares = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Make a recommender with the default hub fanout.
+     *
+     * @param graph social network to recommend from
+     */
+    public WhoToFollow(FollowsGraph graph) {
+        this(graph, DEFAULT_MAX_FANOUT);
+    }
+
+    /**
+     * Make a recommender.
+     *
+     * @param graph social network to recommend from
+     * @param maxFanout most followers of one followee a query visits, positive
+     */
+    public WhoToFollow(FollowsGraph graph, int maxFanout) {
+        if (maxFanout <= 0) {
+            throw new IllegalArgumentException("maxFanout " + maxFanout + " not positive");
+        }
+        this.graph = graph;
+        this.maxFanout = maxFanout;
+    }
+
+    /**
+     * Recommend users for one user to follow.
+     *
+     * @param username a username, as spelled in the graph
+     * @param k most users to recommend, nonnegative
+     * @return up to k usernames two hops from username that it does not
+     *         follow, in descending order of shared followees, then ascending
+     *         String order; empty if username is not in the graph
+     */
+    public List<String> recommend(String username, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("negative k " + k);
+        }
+        int id = graph.idOf(username);
+        if (id < 0) {
+            return new ArrayList<>();
+        }
+        Scratch s = borrow();
+        List<String> result = recommend(id, k, s);
+        spares.add(s);
+        return result;
+    }
+
+    /**
+     * Recommend users for every user in the graph, in parallel.
+     *
+     * @param k most users to recommend to each user, nonnegative
+     * @param pool pool to run queries on
+     * @return recommend(u, k) for every user u, with the time each query took
+     */
+    public Batch recommendAll(int k, ForkJoinPool pool) {
+        if (k < 0) {
+            throw new IllegalArgumentException("negative k " + k);
+        }
+        final int n = graph.userCount();
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        List<String>[] results = new List[n];
+        long[] nanos = new long[n];
+        pool.invoke(new RecommendRange(k, results, nanos, 0, n));
+        return new Batch(graph, results, nanos);
+    }
+
+    /*
+     * Runs the queries for users [lo, hi), splitting ranges longer than
+     * USERS_PER_TASK in half.
+     */
+    private class RecommendRange extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int k;
+        private final List<String>[] results;
+        private final long[] nanos;
+        private final int lo;
+        private final int hi;
+
+        RecommendRange(int k, List<String>[] results, long[] nanos, int lo, int hi) {
+            this.k = k;
+            this.results = results;
+            this.nanos = nanos;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override protected void compute() {
+            if (hi - lo > USERS_PER_TASK) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new RecommendRange(k, results, nanos, lo, mid),
+                          new RecommendRange(k, results, nanos, mid, hi));
+                return;
+            }
+            Scratch s = borrow();
+            for (int u = lo; u < hi; u++) {
+                long started = System.nanoTime();
+                results[u] = recommend(u, k, s);
+                nanos[u] = System.nanoTime() - started;
+            }
+            spares.add(s);
+        }
+    }
+
+    /*
+     * @return a cleared scratch for the caller's exclusive use until it is
+     *         added back to spares, which the caller does only if its queries
+     *         finished and so left the scratch cleared
+     */
+    private Scratch borrow() {
+        Scratch s = spares.poll();
+        return s != null ? s : new Scratch(graph.userCount());
+    }
+
+    private List<String> recommend(int user, int k, Scratch s) {
+        final int[] followingOffsets = graph.followingOffsets();
+        final int[] followingIds = graph.followingIds();
+        final int[] followerOffsets = graph.followerOffsets();
+        final int[] followerIds = graph.followerIds();
+        final int[] counts = s.counts;
+
+        // exclude the user and its followees
+        s.touch(user, -1);
+        for (int e = followingOffsets[user]; e < followingOffsets[user + 1]; e++) {
+            s.touch(followingIds[e], -1);
+        }
+
+        // count paths user -> followee -> candidate, sampling hubs' followers
+        for (int e = followingOffsets[user]; e < followingOffsets[user + 1]; e++) {
+            int followee = followingIds[e];
+            int from = followerOffsets[followee];
+            int to = followerOffsets[followee + 1];
+            int stride = (to - from - 1) / maxFanout + 1;
+            for (int f = from + user % stride; f < to; f += stride) {
+                int candidate = followerIds[f];
+                if (counts[candidate] == 0) {
+                    s.touch(candidate, 1);
+                } else if (counts[candidate] > 0) {
+                    counts[candidate]++;
+                }
+            }
+        }
+
+        // rank the counted candidates, then clear the scratch for the next query
+        int candidates = 0;
+        for (int i = 0; i < s.touchedCount; i++) {
+            if (counts[s.touched[i]] > 0) {
+                s.candidates[candidates++] = s.touched[i];
+            }
+        }
+        int[] top = TopK.select(s.candidates, candidates, k, (a, b) -> {
+            if (counts[a] != counts[b]) {
+                return counts[a] > counts[b];
+            }
+            return graph.username(a).compareTo(graph.username(b)) < 0;
+        });
+        s.clear();
+
+        List<String> result = new ArrayList<>(top.length);
+        for (int id : top) {
+            result.add(graph.username(id));
+        }
+        return result;
+    }
+
+    /*
+     * Working memory for one query at a time: counts[u] is -1 for excluded
+     * users, the number of paths found so far for candidates, and 0 for
+     * every user not in touched[0, touchedCount).
+     */
+    private static class Scratch {
+
+        final int[] counts;
+        final int[] touched;
+        final int[] candidates;
+        int touchedCount = 0;
+
+        Scratch(int users) {
+            counts = new int[users];
+            touched = new int[users];
+            candidates = new int[users];
+        }
+
+        void touch(int user, int count) {
+            if (counts[user] == 0) {
+                touched[touchedCount++] = user;
+            }
+            counts[user] = count;
+        }
+
+        void clear() {
+            for (int i = 0; i < touchedCount; i++) {
+                counts[touched[i]] = 0;
+            }
+            touchedCount = 0;
+        }
+    }
+
+    /**
+     * Immutable recommendations for every user of a social network, with the
+     * time each query took.
+     */
+    public static class Batch {
+
+        private final FollowsGraph graph;
+        private final List<String>[] results;
+        private final long[] nanos;
+
+        private Batch(FollowsGraph graph, List<String>[] results, long[] nanos) {
+            this.graph = graph;
+            this.results = results;
+            this.nanos = nanos;
+        }
+
+        /**
+         * @param username a username, as spelled in the graph
+         * @return the recommendations for that user, as by recommend(), or an
+         *         empty list if it is not in the graph
+         */
+        public List<String> recommendations(String username) {
+            int id = graph.idOf(username);
+            return id < 0 ? new ArrayList<String>() : new ArrayList<>(results[id]);
+        }
+
+        /**
+         * @param username a username, as spelled in the graph
+         * @return wall-clock time of that user's query, in nanoseconds
+         * @throws IllegalArgumentException if username is not in the graph
+         */
+        public long latencyNanos(String username) {
+            int id = graph.idOf(username);
+            if (id < 0) {
+                throw new IllegalArgumentException("no user " + username);
+            }
+            return nanos[id];
+        }
+
+        /**
+         * @param quantile a quantile in (0, 1], e.g. 0.99
+         * @return the query latency at that quantile, in nanoseconds, or 0
+         *         if there were no queries
+         */
+        public long latencyNanosAt(double quantile) {
+            if (!(quantile > 0 && quantile <= 1)) {
+                throw new IllegalArgumentException("quantile " + quantile + " not in (0, 1]");
+            }
+            if (nanos.length == 0) {
+                return 0;
+            }
+            long[] sorted = nanos.clone();
+            Arrays.sort(sorted);
+            return sorted[(int) Math.ceil(quantile * sorted.length) - 1];
+        }
+    }
+}
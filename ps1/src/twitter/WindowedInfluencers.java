@@ -0,0 +1,236 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Ranks users by recent follows evidence over a sliding window of time.
+ *
+ * Evidence is extracted from tweets as by SocialNetwork.guessFollowsGraph (an
+ * author @-mentioning a user) and filed into a ring of fixed-width time
+ * buckets by tweet timestamp. Within one bucket each (author, mentioned)
+ * pair counts once, so a user's score over a window is the number of
+ * distinct followers who mentioned them, summed over the buckets in the
+ * window. Running totals over the whole ring are kept up to date, so tweets
+ * are never rescanned.
+ *
+ * When time moves past the oldest bucket, the bucket is unlinked from the ring
+ * in O(1) and queued for subtraction from the totals. The subtraction is done
+ * EVICTION_STEPS counts at a time for each new piece of evidence, and any that
+ * is left is finished by the next influencers(k). Memory is therefore bounded
+ * by a small multiple of the evidence in the newest bucketCount buckets,
+ * however long the stream runs. influencers(window, k) for a window shorter
+ * than the ring merges the counts of the buckets in the window.
+ *
+ * Time is event time: the clock is the latest timestamp accepted (or passed
+ * to advanceTo()). Tweets older than the ring are ignored.
+ *
+ * Not safe for concurrent use.
+ */
+public class WindowedInfluencers {
+
+    /**
+     * Counts of evicted buckets subtracted from the totals per new piece of
+     * evidence; more than one, so subtraction outpaces the evidence that
+     * will later need it.
+     */
+    private static final int EVICTION_STEPS = 2;
+
+    private final long bucketMillis;
+    private final Bucket[] ring;
+    private long newest = Long.MIN_VALUE; // index of the newest bucket, or MIN_VALUE if none
+    private final Map<String, Integer> totals = new HashMap<>();
+    private final Queue<Iterator<Map.Entry<String, Integer>>> evicted = new ArrayDeque<>();
+    private final SocialNetwork.FollowsCollector collector =
+            new SocialNetwork.FollowsCollector(this::addFollows);
+    private Bucket current; // bucket of the tweet being accepted
+    /*
+     * Abstraction function:
+     *   represents the follows evidence of buckets newest - ring.length + 1
+     *   through newest, where bucket b covers event times
+     *   [b * bucketMillis, (b + 1) * bucketMillis) and is held, if it has
+     *   evidence, in ring[floorMod(b, ring.length)]
+     * Rep invariant:
+     *   every non-null ring[s] has index in (newest - ring.length, newest]
+     *   and floorMod(index, ring.length) == s
+     *   totals[u] == sum of counts[u] over the ring buckets and over the
+     *   entries evicted has yet to return, and > 0
+     *   evicted holds iterators over the counts of buckets no longer in ring
+     */
+
+    /**
+     * Make an empty ranking.
+     *
+     * @param bucketWidth time covered by one bucket, at least 1 ms
+     * @param bucketCount number of buckets, positive; the longest window
+     *                    that can be ranked is bucketWidth * bucketCount
+     */
+    public WindowedInfluencers(Duration bucketWidth, int bucketCount) {
+        if (bucketWidth.toMillis() <= 0 || bucketCount <= 0) {
+            throw new IllegalArgumentException("bad ring " + bucketCount + " x " + bucketWidth);
+        }
+        this.bucketMillis = bucketWidth.toMillis();
+        this.ring = new Bucket[bucketCount];
+    }
+
+    /**
+     * Add the follows evidence in a tweet at the tweet's timestamp, moving
+     * the clock forward to it if it is the latest yet.
+     *
+     * @param tweet a tweet
+     */
+    public void accept(Tweet tweet) {
+        long index = Math.floorDiv(tweet.getTimestamp().toEpochMilli(), bucketMillis);
+        advanceToBucket(index);
+        if (index <= newest - ring.length) {
+            return; // too old for the ring
+        }
+        int slot = (int) Math.floorMod(index, (long) ring.length);
+        if (ring[slot] == null) {
+            ring[slot] = new Bucket(index);
+        }
+        current = ring[slot];
+        collector.accept(tweet);
+    }
+
+    /**
+     * Move the clock forward, evicting evidence that falls out of the ring.
+     *
+     * @param now the current time; times earlier than the clock are ignored
+     */
+    public void advanceTo(Instant now) {
+        advanceToBucket(Math.floorDiv(now.toEpochMilli(), bucketMillis));
+    }
+
+    private void advanceToBucket(long index) {
+        if (index <= newest) {
+            return;
+        }
+        // the slots of the buckets newly in the ring hold only buckets now out of it
+        long first = newest == Long.MIN_VALUE ? index : Math.max(newest + 1, index - ring.length + 1);
+        for (long i = first; i <= index; i++) {
+            int slot = (int) Math.floorMod(i, (long) ring.length);
+            if (ring[slot] != null) {
+                evicted.add(ring[slot].counts.entrySet().iterator());
+                ring[slot] = null;
+            }
+        }
+        newest = index;
+    }
+
+    /*
+     * Subtract up to steps counts of evicted buckets from the totals.
+     */
+    private void subtractEvicted(long steps) {
+        while (steps > 0 && !evicted.isEmpty()) {
+            Iterator<Map.Entry<String, Integer>> counts = evicted.peek();
+            if (!counts.hasNext()) {
+                evicted.remove();
+                continue;
+            }
+            Map.Entry<String, Integer> entry = counts.next();
+            int left = totals.get(entry.getKey()) - entry.getValue();
+            if (left == 0) {
+                totals.remove(entry.getKey());
+            } else {
+                totals.put(entry.getKey(), left);
+            }
+            steps--;
+        }
+    }
+
+    private void addFollows(String follower, String followed) {
+        if (current.edges.add(follower + ' ' + followed)) {
+            current.counts.merge(followed, 1, Integer::sum);
+            totals.merge(followed, 1, Integer::sum);
+            subtractEvicted(EVICTION_STEPS);
+        }
+    }
+
+    /**
+     * Find the users with the most evidence over the whole ring.
+     *
+     * @param k number of users to find, nonnegative
+     * @return up to k usernames (lowercase) with a positive score over the
+     *         newest bucketCount buckets, in descending order of score, then
+     *         ascending String order
+     */
+    public List<String> influencers(int k) {
+        subtractEvicted(Long.MAX_VALUE);
+        return top(totals, k);
+    }
+
+    /**
+     * Find the users with the most evidence in a recent window.
+     *
+     * @param window length of the window ending at the clock; rounded up to
+     *               whole buckets, and at most the whole ring
+     * @param k number of users to find, nonnegative
+     * @return up to k usernames (lowercase) with a positive score over the
+     *         newest ceil(window / bucketWidth) buckets, ordered as by
+     *         influencers(k)
+     */
+    public List<String> influencers(Duration window, int k) {
+        long buckets = (window.toMillis() + bucketMillis - 1) / bucketMillis;
+        if (buckets >= ring.length) {
+            return influencers(k);
+        }
+        Map<String, Integer> scores = new HashMap<>();
+        for (Bucket bucket : ring) {
+            if (bucket != null && bucket.index > newest - buckets) {
+                for (Map.Entry<String, Integer> entry : bucket.counts.entrySet()) {
+                    scores.merge(entry.getKey(), entry.getValue(), Integer::sum);
+                }
+            }
+        }
+        return top(scores, k);
+    }
+
+    private static List<String> top(Map<String, Integer> scores, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("negative k " + k);
+        }
+        final String[] names = new String[scores.size()];
+        final int[] counts = new int[scores.size()];
+        int n = 0;
+        for (Map.Entry<String, Integer> entry : scores.entrySet()) {
+            names[n] = entry.getKey();
+            counts[n] = entry.getValue();
+            n++;
+        }
+        List<String> result = new ArrayList<>();
+        for (int id : TopK.select(n, k, (a, b) -> counts[a] != counts[b]
+                ? counts[a] > counts[b]
+                : names[a].compareTo(names[b]) < 0)) {
+            result.add(names[id]);
+        }
+        return result;
+    }
+
+    /*
+     * Evidence from one bucket of time: edges holds "follower followed" for
+     * each distinct pair, and counts[u] the number of those pairs naming u.
+     */
+    private static class Bucket {
+
+        final long index;
+        final Set<String> edges = new HashSet<>();
+        final Map<String, Integer> counts = new HashMap<>();
+
+        Bucket(long index) {
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CountMinSketchTest {
+
+    /*
+     * Testing strategy:
+     *   values: never added, added once, added many times, skewed stream
+     *   dimensions: explicit, from forError, out of range
+     *   merge: equal and mismatched dimensions
+     */
+
+    @Test
+    public void testForErrorDimensions() {
+        CountMinSketch sketch = CountMinSketch.forError(0.001, 0.01);
+        assertEquals(2719, sketch.width());
+        assertEquals(5, sketch.depth());
+    }
+
+    @Test
+    public void testSkewedStreamWithinBound() {
+        CountMinSketch sketch = CountMinSketch.forError(0.01, 0.01);
+        Random random = new Random(20);
+        final int users = 5000;
+        long[] truth = new long[users];
+        for (int i = 0; i < 100000; i++) {
+            int user = (int) Math.min(users - 1, Math.abs(random.nextGaussian()) * users / 20);
+            truth[user]++;
+            sketch.add("user" + user, 1);
+        }
+        assertEquals(100000, sketch.totalCount());
+        int overBound = 0;
+        for (int user = 0; user < users; user++) {
+            long estimate = sketch.estimate("user" + user);
+            assertTrue(estimate >= truth[user]);
+            if (estimate > truth[user] + 0.01 * sketch.totalCount()) {
+                overBound++;
+            }
+        }
+        assertTrue(overBound <= users * 0.01 * 2);
+        assertEquals(0, new CountMinSketch(16, 2).estimate("never"));
+    }
+
+    @Test
+    public void testMerge() {
+        CountMinSketch a = new CountMinSketch(64, 4);
+        CountMinSketch b = new CountMinSketch(64, 4);
+        a.add("bob", 3);
+        b.add("bob", 4);
+        b.add("alice", 1);
+        a.merge(b);
+        assertTrue(a.estimate("bob") >= 7);
+        assertTrue(a.estimate("alice") >= 1);
+        assertEquals(8, a.totalCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMergeMismatched() {
+        new CountMinSketch(64, 4).merge(new CountMinSketch(64, 5));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadError() {
+        CountMinSketch.forError(0, 0.5);
+    }
+}
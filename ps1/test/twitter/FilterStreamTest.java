@@ -0,0 +1,61 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+/*
+ * Tests for the lazy Stream variants of Filter's methods. Kept apart from
+ * FilterTest, which must run against implementations without these variants.
+ */
+public class FilterStreamTest {
+
+    /*
+     * Testing strategy:
+     *   chained filters: same result as chained eager calls
+     *   terminal operation: collect, limit (stops pulling early), anyMatch, count
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "Alyssa", "rivest again", d2);
+
+    private static final List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3);
+
+    @Test
+    public void testChainedMatchesEager() {
+        Timespan span = new Timespan(d1, d2);
+        List<String> words = Arrays.asList("RIVEST");
+        List<Tweet> eager = Filter.containing(Filter.inTimespan(Filter.writtenBy(tweets, "alyssa"), span), words);
+        List<Tweet> lazy = Filter.containing(Filter.inTimespan(Filter.writtenBy(tweets.stream(), "alyssa"), span), words)
+                .collect(Collectors.toList());
+        assertEquals(Arrays.asList(tweet1, tweet3), lazy);
+        assertEquals(eager, lazy);
+    }
+
+    @Test
+    public void testEarlyTermination() {
+        AtomicInteger pulled = new AtomicInteger();
+        Stream<Tweet> source = tweets.stream().peek(t -> pulled.incrementAndGet());
+        List<Tweet> firstPage = Filter.containing(source, Arrays.asList("rivest")).limit(1)
+                .collect(Collectors.toList());
+        assertEquals(Arrays.asList(tweet1), firstPage);
+        assertEquals("expected only one tweet examined", 1, pulled.get());
+
+        assertTrue(Filter.writtenBy(tweets.stream(), "BBITDIDDLE").anyMatch(t -> t.getId() == 2));
+        assertEquals(2, Filter.writtenBy(tweets.stream(), "alyssa").count());
+    }
+}
@@ -90,6 +90,12 @@ public class FilterTest {
         assertTrue("no tweets should be inside this narrow span", result.isEmpty());
     }
 
+    @Test
+    public void testInTimespanIncludesEndpoints() {
+        List<Tweet> result = Filter.inTimespan(Arrays.asList(tweet1, tweet2), new Timespan(d1, d2));
+        assertEquals(Arrays.asList(tweet1, tweet2), result);
+    }
+
     @Test
     public void testContainingCaseInsensitive() {
         List<Tweet> result = Filter.containing(Arrays.asList(tweet1, tweet2), Arrays.asList("TALK"));
@@ -0,0 +1,130 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class FollowsGraphTest {
+
+    /*
+     * Testing strategy:
+     *   graph: empty, users with no edges, users only followed, repeated
+     *          edges and self-follows (builder), random
+     *   fromMap/toMap round trip; degrees, neighbor lists and follows()
+     *   against the map; guessCompactFollowsGraph and influencers against
+     *   the Map versions
+     */
+
+    @Test
+    public void testEmpty() {
+        FollowsGraph graph = FollowsGraph.fromMap(new HashMap<String, Set<String>>());
+        assertEquals(0, graph.userCount());
+        assertEquals(0, graph.edgeCount());
+        assertEquals(-1, graph.idOf("alice"));
+        assertEquals(new HashMap<String, Set<String>>(), graph.toMap());
+    }
+
+    @Test
+    public void testBuilder() {
+        FollowsGraph.Builder builder = new FollowsGraph.Builder();
+        builder.addUser("loner");
+        builder.addFollows("alice", "bob");
+        builder.addFollows("alice", "bob");
+        builder.addFollows("alice", "alice");
+        builder.addFollows("charlie", "bob");
+        builder.addFollows("bob", "alice");
+        FollowsGraph graph = builder.build();
+
+        assertEquals(4, graph.userCount());
+        assertEquals(3, graph.edgeCount());
+        int alice = graph.idOf("alice");
+        int bob = graph.idOf("bob");
+        int charlie = graph.idOf("charlie");
+        int loner = graph.idOf("loner");
+        assertEquals("bob", graph.username(bob));
+        assertEquals(2, graph.followerCount(bob));
+        assertEquals(1, graph.followingCount(alice));
+        assertEquals(0, graph.followerCount(charlie));
+        assertEquals(0, graph.followingCount(loner));
+        assertArrayEquals(new int[] { alice, charlie }, graph.followers(bob));
+        assertArrayEquals(new int[] { bob }, graph.following(alice));
+        assertTrue(graph.follows(alice, bob));
+        assertFalse(graph.follows(alice, alice));
+        assertFalse(graph.follows(alice, charlie));
+    }
+
+    @Test
+    public void testRandomRoundTrip() {
+        Random random = new Random(15);
+        Map<String, Set<String>> map = new HashMap<>();
+        for (int u = 0; u < 300; u++) {
+            Set<String> follows = new HashSet<>();
+            for (int e = random.nextInt(8); e > 0; e--) {
+                int v = random.nextInt(400);
+                if (v != u) {
+                    follows.add("user" + v);
+                }
+            }
+            map.put("user" + u, follows);
+        }
+        FollowsGraph graph = FollowsGraph.fromMap(map);
+
+        int edges = 0;
+        int[] followers = new int[graph.userCount()];
+        for (Map.Entry<String, Set<String>> entry : map.entrySet()) {
+            int u = graph.idOf(entry.getKey());
+            assertEquals(entry.getValue().size(), graph.followingCount(u));
+            for (String followed : entry.getValue()) {
+                assertTrue(graph.follows(u, graph.idOf(followed)));
+                followers[graph.idOf(followed)]++;
+            }
+            edges += entry.getValue().size();
+        }
+        assertEquals(edges, graph.edgeCount());
+        for (int v = 0; v < graph.userCount(); v++) {
+            assertEquals(followers[v], graph.followerCount(v));
+            for (int u : graph.followers(v)) {
+                assertTrue(graph.follows(u, v));
+            }
+        }
+
+        // users only followed become keys with empty sets
+        Map<String, Set<String>> expected = new HashMap<>(map);
+        for (Set<String> follows : map.values()) {
+            for (String followed : follows) {
+                expected.putIfAbsent(followed, new HashSet<String>());
+            }
+        }
+        assertEquals(expected, graph.toMap());
+        assertEquals(SocialNetwork.influencers(map, 20), SocialNetwork.influencers(graph, 20));
+    }
+
+    @Test
+    public void testGuessCompactFollowsGraph() {
+        Instant d = Instant.parse("2016-02-17T10:00:00Z");
+        List<Tweet> tweets = new ArrayList<>(Arrays.asList(
+                new Tweet(1, "Alyssa", "@bbitdiddle @BBitDiddle talk at @alyssa's", d),
+                new Tweet(2, "bbitdiddle", "thanks @ALYSSA, see @ben-b there", d),
+                new Tweet(3, "nobody", "no mentions here, email a@b.com", d)));
+        Map<String, Set<String>> expected = SocialNetwork.guessFollowsGraph(tweets);
+        FollowsGraph graph = SocialNetwork.guessCompactFollowsGraph(tweets);
+
+        Map<String, Set<String>> actual = graph.toMap();
+        actual.values().removeIf(Set::isEmpty);
+        assertEquals(expected, actual);
+        assertEquals(SocialNetwork.influencers(expected, 3), SocialNetwork.influencers(graph, 3));
+    }
+}
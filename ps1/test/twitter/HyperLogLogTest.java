@@ -0,0 +1,69 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class HyperLogLogTest {
+
+    /*
+     * Testing strategy:
+     *   distinct count: 0, small (linear counting), large; with repeats
+     *   precision: min, default, max, out of range
+     *   merge: disjoint and overlapping shards, mismatched precision
+     */
+
+    @Test
+    public void testSmallCountsNearlyExact() {
+        HyperLogLog sketch = new HyperLogLog(14);
+        assertEquals(0, sketch.estimate());
+        for (int repeat = 0; repeat < 3; repeat++) {
+            for (int i = 0; i < 100; i++) {
+                sketch.add("user" + i);
+            }
+        }
+        assertEquals(100, sketch.estimate(), 2);
+    }
+
+    @Test
+    public void testLargeCountWithinError() {
+        for (int precision : new int[] { HyperLogLog.MIN_PRECISION, 10, 14, HyperLogLog.MAX_PRECISION }) {
+            HyperLogLog sketch = new HyperLogLog(precision);
+            final int n = 200000;
+            for (int i = 0; i < n; i++) {
+                sketch.add("user" + i);
+            }
+            double error = 1.04 / Math.sqrt(1 << precision);
+            assertEquals("precision " + precision, n, sketch.estimate(), 4 * error * n);
+        }
+    }
+
+    @Test
+    public void testMerge() {
+        HyperLogLog a = new HyperLogLog(12);
+        HyperLogLog b = new HyperLogLog(12);
+        HyperLogLog all = new HyperLogLog(12);
+        for (int i = 0; i < 30000; i++) {
+            (i < 20000 ? a : b).add("user" + i);
+            if (i >= 10000 && i < 20000) {
+                b.add("user" + i); // overlap
+            }
+            all.add("user" + i);
+        }
+        a.merge(b);
+        assertEquals(all.estimate(), a.estimate());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMergeMismatched() {
+        new HyperLogLog(10).merge(new HyperLogLog(11));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadPrecision() {
+        new HyperLogLog(HyperLogLog.MAX_PRECISION + 1);
+    }
+}
@@ -0,0 +1,78 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class IncrementalSocialNetworkTest {
+
+    /*
+     * Testing strategy:
+     *   tweets: none, no mentions, repeated mention, self-mention, mixed case
+     *   k: 0, < users, > users
+     *   agrees with guessFollowsGraph and influencers after every tweet of a
+     *   random stream
+     */
+
+    private static final Instant d = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test
+    public void testEmpty() {
+        IncrementalSocialNetwork network = new IncrementalSocialNetwork();
+        assertEquals(0, network.userCount());
+        assertEquals(new HashMap<String, Set<String>>(), network.followsGraph());
+        assertEquals(Arrays.asList(), network.influencers(3));
+        network.accept(new Tweet(1, "alyssa", "no mentions", d));
+        assertEquals(0, network.userCount());
+    }
+
+    @Test
+    public void testCounts() {
+        IncrementalSocialNetwork network = new IncrementalSocialNetwork();
+        network.accept(new Tweet(1, "Alyssa", "@bob @BOB @alyssa", d));
+        network.accept(new Tweet(2, "carol", "@bob @alyssa", d));
+        network.accept(new Tweet(3, "alyssa", "@bob again", d));
+
+        assertEquals(3, network.userCount());
+        assertEquals(2, network.followerCount("Bob"));
+        assertEquals(1, network.followerCount("alyssa"));
+        assertEquals(0, network.followerCount("carol"));
+        assertEquals(0, network.followerCount("nobody"));
+        assertEquals(Arrays.asList("bob", "alyssa"), network.influencers(2));
+        assertEquals(Arrays.asList("bob", "alyssa", "carol"), network.influencers(10));
+        assertEquals(Arrays.asList(), network.influencers(0));
+    }
+
+    @Test
+    public void testRandomStreamMatchesRebuild() {
+        Random random = new Random(16);
+        IncrementalSocialNetwork network = new IncrementalSocialNetwork();
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            StringBuilder text = new StringBuilder("hi");
+            for (int m = random.nextInt(4); m > 0; m--) {
+                text.append(" @User").append(random.nextInt(40));
+            }
+            Tweet tweet = new Tweet(i, "user" + random.nextInt(40), text.toString(), d);
+            tweets.add(tweet);
+            network.accept(tweet);
+            if (i % 50 == 0 || i == 399) {
+                assertEquals(SocialNetwork.guessFollowsGraph(tweets), network.followsGraph());
+                assertEquals(SocialNetwork.influencers(network.followsGraph(), 7), network.influencers(7));
+            }
+        }
+        assertEquals(SocialNetwork.influencers(SocialNetwork.guessFollowsGraph(tweets)),
+                network.influencers(Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,125 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for SocialNetwork.influencers(Map, int), kept apart from
+ * SocialNetworkTest because they test more than the staff spec.
+ */
+public class InfluencersTest {
+
+    /*
+     * Testing strategy:
+     *   k: 0, < n (heap selection), >= n / 16 (bucket selection), > n
+     *   graph: empty, users only followed, ties in follower count, more
+     *          than 16 users, most of them with no followers
+     *   agrees with a full sort on random graphs for every k
+     */
+
+    @Test
+    public void testEmptyAndZero() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        assertEquals(Arrays.asList(), SocialNetwork.influencers(graph, 5));
+        graph.put("alice", new HashSet<>(Arrays.asList("bob")));
+        assertEquals(Arrays.asList(), SocialNetwork.influencers(graph, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeK() {
+        SocialNetwork.influencers(new HashMap<String, Set<String>>(), -1);
+    }
+
+    @Test
+    public void testTiesBrokenByName() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        graph.put("alice", new HashSet<>(Arrays.asList("dave", "bob")));
+        graph.put("charlie", new HashSet<>(Arrays.asList("bob", "eve")));
+        graph.put("bob", new HashSet<>(Arrays.asList("dave")));
+
+        List<String> expected = Arrays.asList("bob", "dave", "eve", "alice", "charlie");
+        assertEquals(expected, SocialNetwork.influencers(graph, 10));
+        assertEquals(expected, SocialNetwork.influencers(graph));
+        assertEquals(expected.subList(0, 2), SocialNetwork.influencers(graph, 2));
+    }
+
+    @Test
+    public void testManyUsersFollowingOneStar() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        List<String> expected = new ArrayList<>();
+        expected.add("star");
+        for (int i = 0; i < 20; i++) {
+            graph.put("fan" + (char) ('a' + i), new HashSet<>(Arrays.asList("star")));
+            expected.add("fan" + (char) ('a' + i));
+        }
+        assertEquals(expected, SocialNetwork.influencers(graph));
+        assertEquals(Arrays.asList("star", "fana"), SocialNetwork.influencers(graph, 2));
+    }
+
+    @Test
+    public void testManyUsersWithNoFollows() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            graph.put("user" + (char) ('a' + i), new HashSet<String>());
+            expected.add("user" + (char) ('a' + i));
+        }
+        assertEquals(expected, SocialNetwork.influencers(graph));
+        assertEquals(expected.subList(0, 3), SocialNetwork.influencers(graph, 3));
+    }
+
+    @Test
+    public void testRandomGraphsMatchFullSort() {
+        Random random = new Random(314);
+        for (int trial = 0; trial < 5; trial++) {
+            int users = 50 + random.nextInt(400);
+            Map<String, Set<String>> graph = new HashMap<>();
+            Map<String, Integer> followers = new HashMap<>();
+            for (int u = 0; u < users; u++) {
+                followers.put("user" + u, 0);
+            }
+            for (int u = 0; u < users; u++) {
+                Set<String> follows = new HashSet<>();
+                int edges = random.nextInt(6);
+                for (int e = 0; e < edges; e++) {
+                    int v = (int) Math.abs(random.nextGaussian() * users / 8) % users;
+                    if (v != u && follows.add("user" + v)) {
+                        followers.put("user" + v, followers.get("user" + v) + 1);
+                    }
+                }
+                if (!follows.isEmpty() || random.nextBoolean()) {
+                    graph.put("user" + u, follows);
+                }
+            }
+
+            // every user is either a key or followed, except isolated users left out of graph
+            List<String> expected = new ArrayList<>();
+            for (String user : followers.keySet()) {
+                if (graph.containsKey(user) || followers.get(user) > 0) {
+                    expected.add(user);
+                }
+            }
+            expected.sort((a, b) -> followers.get(a).equals(followers.get(b))
+                    ? a.compareTo(b)
+                    : followers.get(b) - followers.get(a));
+
+            for (int k : new int[] { 1, 3, expected.size() / 20, expected.size() / 2, expected.size() + 1 }) {
+                assertEquals("k = " + k, expected.subList(0, Math.min(k, expected.size())),
+                        SocialNetwork.influencers(graph, k));
+            }
+        }
+    }
+}
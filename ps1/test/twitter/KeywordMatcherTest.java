@@ -0,0 +1,91 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class KeywordMatcherTest {
+
+    /*
+     * Testing strategy:
+     *   words: none, one, many sharing prefixes, one a prefix of another,
+     *          empty or containing whitespace (ignored), differing in case
+     *   text: empty, match at start/middle/end, word only a prefix or an
+     *         extension of a keyword, keyword inside a longer word, tabs/newlines,
+     *         non-ASCII chars that String and Character lowercase differently
+     */
+
+    @Test
+    public void testNoWords() {
+        KeywordMatcher matcher = KeywordMatcher.compile(new ArrayList<String>());
+        assertFalse(matcher.matches(""));
+        assertFalse(matcher.matches("anything at all"));
+    }
+
+    @Test
+    public void testWholeWordsOnly() {
+        KeywordMatcher matcher = KeywordMatcher.compile(Arrays.asList("talk", "talks", "Rivest", "", "two words"));
+        assertTrue(matcher.matches("talk"));
+        assertTrue(matcher.matches("rivest talk in 30 minutes"));
+        assertTrue(matcher.matches("in 30\tminutes\nTALKS"));
+        assertTrue(matcher.matches("RIVEST"));
+        assertFalse(matcher.matches("tal"));
+        assertFalse(matcher.matches("talked"));
+        assertFalse(matcher.matches("smalltalk rivest's"));
+        assertFalse(matcher.matches("two words"));
+        assertFalse(matcher.matches(""));
+    }
+
+    @Test
+    public void testManyWordsMatchesFilter() {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            words.add("brand" + i);
+        }
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            tweets.add(new Tweet(i, "user", "I love BRAND" + (i * 37) + " so much", Instant.EPOCH));
+        }
+        List<Tweet> expected = new ArrayList<>();
+        for (Tweet tweet : tweets) {
+            if (tweet.getId() * 37 < 5000) {
+                expected.add(tweet);
+            }
+        }
+        assertEquals(expected, KeywordMatcher.compile(words).filter(tweets));
+        assertEquals(expected, Filter.containing(tweets, words));
+    }
+
+    @Test
+    public void testNonAsciiFoldsLikeString() {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            words.add("brand" + i);
+        }
+        words.add("\u0130stanbul");
+        words.add("\u03bf\u03b4\u03bf\u03c2");
+        KeywordMatcher matcher = KeywordMatcher.compile(words);
+        assertTrue(matcher.matches("visiting \u0130STANBUL"));
+        assertFalse(matcher.matches("visiting istanbul"));
+        assertTrue(matcher.matches("caf\u00e9 on \u039f\u0394\u039f\u03a3"));
+        assertTrue(matcher.matches("caf\u00e9 BRAND7"));
+        assertFalse(matcher.matches("caf\u00e9 brand"));
+
+        List<Tweet> tweets = new ArrayList<>();
+        for (String text : Arrays.asList("visiting \u0130STANBUL", "visiting istanbul",
+                "\u039f\u0394\u039f\u03a3 here", "\u039f\u0394\u039f\u03a3\u0391")) {
+            tweets.add(new Tweet(tweets.size(), "user", text, Instant.EPOCH));
+        }
+        List<Tweet> small = Filter.containing(tweets, words.subList(5000, 5002));
+        assertEquals(Arrays.asList(tweets.get(0), tweets.get(2)), small);
+        assertEquals(small, Filter.containing(tweets, words));
+    }
+}
@@ -0,0 +1,48 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class LongBloomFilterTest {
+
+    /*
+     * Testing strategy:
+     *   sizing: invalid, one key, many keys
+     *   keys: added (never missed), not added (rarely reported)
+     */
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadRate() {
+        new LongBloomFilter(100, 1.0);
+    }
+
+    @Test
+    public void testOneKey() {
+        LongBloomFilter filter = new LongBloomFilter(1, 0.01);
+        assertFalse(filter.mightContain(42));
+        filter.add(42);
+        assertTrue(filter.mightContain(42));
+    }
+
+    @Test
+    public void testFalsePositiveRate() {
+        LongBloomFilter filter = new LongBloomFilter(100_000, 0.01);
+        for (long key = 0; key < 100_000; key++) {
+            filter.add(key * 31);
+        }
+        for (long key = 0; key < 100_000; key++) {
+            assertTrue(filter.mightContain(key * 31));
+        }
+        int falsePositives = 0;
+        for (long key = 0; key < 100_000; key++) {
+            if (filter.mightContain(-1 - key * 31)) {
+                falsePositives++;
+            }
+        }
+        assertTrue("false positives " + falsePositives, falsePositives < 2 * 1000);
+    }
+}
@@ -0,0 +1,69 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class MentionSketchTest {
+
+    /*
+     * Testing strategy:
+     *   tweets: no mentions, mentions in mixed case, email addresses, many
+     *           distinct users
+     *   queries: distinct users against Extract, per-user counts, totals
+     *   merge: shards of one stream
+     */
+
+    private static final Instant d = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test
+    public void testFewMentions() {
+        MentionSketch sketch = new MentionSketch();
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(1, "alyssa", "@Bob and @bob, not bob@mit.edu", d),
+                new Tweet(2, "bob", "@ALYSSA @carol-c", d),
+                new Tweet(3, "carol", "no mentions", d));
+        for (Tweet tweet : tweets) {
+            sketch.accept(tweet);
+        }
+        assertEquals(Extract.getMentionedUsers(tweets).size(), sketch.distinctMentionedUsers());
+        assertEquals(4, sketch.totalMentions());
+        assertEquals(2, sketch.mentionCount("BOB"));
+        assertEquals(1, sketch.mentionCount("alyssa"));
+        assertEquals(1, sketch.mentionCount("carol-c"));
+        assertEquals(0, sketch.mentionCount("mit"));
+    }
+
+    @Test
+    public void testShardsMergeToWhole() {
+        Random random = new Random(2020);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            tweets.add(new Tweet(i, "author", "hi @User" + random.nextInt(50000) + " and @fan", d));
+        }
+        MentionSketch whole = new MentionSketch();
+        MentionSketch[] shards = { new MentionSketch(), new MentionSketch(), new MentionSketch() };
+        for (int i = 0; i < tweets.size(); i++) {
+            whole.accept(tweets.get(i));
+            shards[i % shards.length].accept(tweets.get(i));
+        }
+        shards[0].merge(shards[1]);
+        shards[0].merge(shards[2]);
+
+        long expected = Extract.getMentionedUsers(tweets).size();
+        assertEquals(expected, whole.distinctMentionedUsers(), expected * 0.03);
+        assertEquals(whole.distinctMentionedUsers(), shards[0].distinctMentionedUsers());
+        assertEquals(whole.totalMentions(), shards[0].totalMentions());
+        assertEquals(whole.mentionCount("fan"), shards[0].mentionCount("fan"));
+        assertEquals(20000, whole.mentionCount("FAN"), 0.001 * whole.totalMentions());
+    }
+}
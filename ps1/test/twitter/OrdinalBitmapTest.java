@@ -0,0 +1,90 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class OrdinalBitmapTest {
+
+    /*
+     * Testing strategy:
+     *   groups: empty set, one sparse (array) group, dense (bitmap) group,
+     *           several groups with gaps between high keys
+     *   add order: ascending, random, duplicates
+     *   and/or: array x array, array x bitmap, bitmap x bitmap; disjoint groups
+     *   each result is compared against java.util.BitSet
+     */
+
+    private static OrdinalBitmap random(Random random, BitSet expected, int count, int bound) {
+        OrdinalBitmap bitmap = new OrdinalBitmap();
+        for (int i = 0; i < count; i++) {
+            int value = random.nextInt(bound);
+            bitmap.add(value);
+            expected.set(value);
+        }
+        return bitmap;
+    }
+
+    private static void assertSameSet(BitSet expected, OrdinalBitmap actual) {
+        List<Integer> values = new ArrayList<>();
+        actual.forEach(values::add);
+        List<Integer> expectedValues = new ArrayList<>();
+        expected.stream().forEach(expectedValues::add);
+        assertEquals(expectedValues, values);
+        assertEquals(expected.cardinality(), actual.cardinality());
+    }
+
+    @Test
+    public void testEmpty() {
+        OrdinalBitmap bitmap = new OrdinalBitmap();
+        assertTrue(bitmap.isEmpty());
+        assertFalse(bitmap.contains(0));
+        assertTrue(bitmap.and(bitmap).isEmpty());
+        assertTrue(bitmap.or(bitmap).isEmpty());
+    }
+
+    @Test
+    public void testAddAndContains() {
+        Random random = new Random(4);
+        BitSet expected = new BitSet();
+        OrdinalBitmap bitmap = random(random, expected, 20_000, 300_000);
+        bitmap.add(5);
+        bitmap.add(5);
+        expected.set(5);
+        assertSameSet(expected, bitmap);
+        for (int i = 0; i < 300_000; i += 7) {
+            assertEquals(expected.get(i), bitmap.contains(i));
+        }
+    }
+
+    @Test
+    public void testAndOr() {
+        Random random = new Random(5);
+        int[][] shapes = { { 1000, 200_000 }, { 60_000, 131_072 }, { 50, 1 << 20 } };
+        for (int[] a : shapes) {
+            for (int[] b : shapes) {
+                BitSet x = new BitSet();
+                BitSet y = new BitSet();
+                OrdinalBitmap bx = random(random, x, a[0], a[1]);
+                OrdinalBitmap by = random(random, y, b[0], b[1]);
+
+                BitSet and = (BitSet) x.clone();
+                and.and(y);
+                assertSameSet(and, bx.and(by));
+
+                BitSet or = (BitSet) x.clone();
+                or.or(y);
+                assertSameSet(or, bx.or(by));
+                assertSameSet(x, bx); // operands unchanged
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class PageRankTest {
+
+    /*
+     * Testing strategy:
+     *   graph: empty, star, cycle, users following nobody, large random
+     *          (many blocks) checked against a sequential reference
+     *   mode: global, personalized (seeds in and not in graph, none in graph)
+     *   stopping: converged, iteration limit reached
+     *   parameters: out of range
+     */
+
+    private static final double EPSILON = 1e-9;
+
+    private static FollowsGraph graph(String... edges) {
+        FollowsGraph.Builder builder = new FollowsGraph.Builder();
+        for (String edge : edges) {
+            String[] users = edge.split("->");
+            builder.addFollows(users[0], users[1]);
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void testEmpty() {
+        PageRank.Result result = new PageRank().rank(graph());
+        assertEquals(Arrays.asList(), result.influencers(5));
+        assertEquals(0, result.iterations());
+        assertTrue(result.converged());
+    }
+
+    @Test
+    public void testStar() {
+        FollowsGraph star = graph("a->hub", "b->hub", "c->hub", "hub->a");
+        PageRank.Result result = new PageRank().rank(star);
+        assertEquals(Arrays.asList("hub", "a", "b", "c"), result.influencers(10));
+        assertEquals(Arrays.asList("hub"), result.influencers(1));
+        assertEquals(result.score("b"), result.score("c"), EPSILON);
+        assertEquals(0, result.score("nobody"), 0);
+        double total = 0;
+        for (String user : Arrays.asList("a", "b", "c", "hub")) {
+            total += result.score(user);
+        }
+        assertEquals(1, total, EPSILON);
+    }
+
+    @Test
+    public void testCycleIsUniform() {
+        PageRank.Result result = new PageRank().rank(graph("a->b", "b->c", "c->a"));
+        assertEquals(1.0 / 3, result.score("a"), EPSILON);
+        assertEquals(Arrays.asList("a", "b", "c"), result.influencers(3));
+    }
+
+    @Test
+    public void testPersonalized() {
+        FollowsGraph g = graph("a->b", "b->c", "x->y", "y->x", "z->x");
+        PageRank.Result result = new PageRank().rankPersonalized(g, Arrays.asList("a", "missing"));
+        assertEquals(0, result.score("x"), 0);
+        assertEquals(0, result.score("y"), 0);
+        assertEquals(Arrays.asList("a", "b", "c"), result.influencers(3).subList(0, 3));
+        assertTrue(result.score("c") > 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPersonalizedNoSeeds() {
+        new PageRank().rankPersonalized(graph("a->b"), Arrays.asList("nobody"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadDamping() {
+        new PageRank(1.0, 1e-6, 10, ForkJoinPool.commonPool());
+    }
+
+    @Test
+    public void testIterationLimit() {
+        PageRank.Result result = new PageRank(0.85, 0, 3, ForkJoinPool.commonPool())
+                .rank(graph("a->b", "b->c", "c->a", "d->a"));
+        assertEquals(3, result.iterations());
+        assertFalse(result.converged());
+        assertTrue(result.iterationNanos(2) >= 0);
+    }
+
+    @Test
+    public void testLargeRandomMatchesReference() {
+        Random random = new Random(17);
+        final int users = 20000;
+        Map<String, Set<String>> map = new HashMap<>();
+        for (int u = 0; u < users; u++) {
+            Set<String> follows = new HashSet<>();
+            for (int e = random.nextInt(5); e > 0; e--) {
+                int v = (int) Math.abs(random.nextGaussian() * users / 10) % users;
+                if (v != u) {
+                    follows.add("u" + v);
+                }
+            }
+            map.put("u" + u, follows);
+        }
+        FollowsGraph g = FollowsGraph.fromMap(map);
+        double damping = 0.85;
+        PageRank.Result result = new PageRank(damping, 1e-12, 200, new ForkJoinPool(4)).rank(g);
+        assertTrue(result.converged());
+
+        // sequential push-style reference
+        int n = g.userCount();
+        double[] scores = new double[n];
+        Arrays.fill(scores, 1.0 / n);
+        for (int it = 0; it < 200; it++) {
+            double[] next = new double[n];
+            double dangling = 0;
+            for (int u = 0; u < n; u++) {
+                int[] out = g.following(u);
+                if (out.length == 0) {
+                    dangling += scores[u];
+                }
+                for (int v : out) {
+                    next[v] += damping * scores[u] / out.length;
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                next[v] += (damping * dangling + 1 - damping) / n;
+            }
+            scores = next;
+        }
+        for (int u = 0; u < n; u += 97) {
+            assertEquals(scores[u], result.score(g.username(u)), 1e-10);
+        }
+        String top = result.influencers(1).get(0);
+        for (int u = 0; u < n; u++) {
+            assertTrue(result.score(g.username(u)) <= result.score(top));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compares decoding a JSON file of tweets by TweetStreamReader with the
+ * ParallelTweetDecoder on pools of 1, 2, 4, ... threads, up to the number of
+ * processors. Not a unit test; run main() with -ea on a multi-core machine and
+ * compare the times printed.
+ *
+ * Uses the same tweets as SnapshotBenchmark.
+ */
+public class ParallelDecodeBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        List<Tweet> tweets = SnapshotBenchmark.randomTweets(new Random(42));
+        Path json = Files.createTempFile("tweets", ".json");
+        try {
+            SnapshotBenchmark.writeJson(tweets, json);
+            final int processors = Runtime.getRuntime().availableProcessors();
+            System.out.printf("%d tweets, JSON %d MB, %d processors%n",
+                    tweets.size(), Files.size(json) >> 20, processors);
+
+            for (int round = 0; round < ROUNDS; round++) {
+                long t0 = System.nanoTime();
+                List<Tweet> sequential = TweetStreamReader.readTweetsFromFile(json);
+                long t1 = System.nanoTime();
+                StringBuilder line = new StringBuilder(String.format("round %d: sequential %d ms",
+                        round, (t1 - t0) / 1_000_000));
+                for (int threads = 1; ; threads = Math.min(threads * 2, processors)) {
+                    ForkJoinPool pool = new ForkJoinPool(threads);
+                    try {
+                        long t2 = System.nanoTime();
+                        List<Tweet> parallel = new ParallelTweetDecoder(pool).readTweetsFromFile(json);
+                        long t3 = System.nanoTime();
+                        assert parallel.equals(sequential);
+                        line.append(String.format(", %d threads %d ms", threads, (t3 - t2) / 1_000_000));
+                    } finally {
+                        pool.shutdown();
+                    }
+                    if (threads == processors) {
+                        break;
+                    }
+                }
+                System.out.println(line);
+            }
+        } finally {
+            Files.delete(json);
+        }
+    }
+}
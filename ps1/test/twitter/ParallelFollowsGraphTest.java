@@ -0,0 +1,69 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+/**
+ * Tests for SocialNetwork.guessFollowsGraph(List, ForkJoinPool), kept apart
+ * from SocialNetworkTest because they test more than the staff spec.
+ */
+public class ParallelFollowsGraphTest {
+
+    /*
+     * Testing strategy:
+     *   tweets: none, fewer than one chunk, many chunks with the same edges
+     *           found in several chunks
+     *   list: random access, linked
+     *   pool: one thread, several threads
+     */
+
+    private static final Instant d = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static List<Tweet> randomTweets(int count, long seed) {
+        Random random = new Random(seed);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            StringBuilder text = new StringBuilder("re:");
+            for (int m = random.nextInt(4); m > 0; m--) {
+                text.append(" @User").append(random.nextInt(300));
+            }
+            tweets.add(new Tweet(i, "user" + random.nextInt(300), text.toString(), d));
+        }
+        return tweets;
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals(new HashMap<String, Set<String>>(),
+                SocialNetwork.guessFollowsGraph(new ArrayList<Tweet>(), new ForkJoinPool(2)));
+    }
+
+    @Test
+    public void testSmallMatchesSequential() {
+        List<Tweet> tweets = randomTweets(100, 18);
+        assertEquals(SocialNetwork.guessFollowsGraph(tweets),
+                SocialNetwork.guessFollowsGraph(tweets, new ForkJoinPool(4)));
+    }
+
+    @Test
+    public void testManyChunksMatchSequential() {
+        List<Tweet> tweets = randomTweets(50000, 180);
+        Object expected = SocialNetwork.guessFollowsGraph(tweets);
+        assertEquals(expected, SocialNetwork.guessFollowsGraph(tweets, new ForkJoinPool(1)));
+        assertEquals(expected, SocialNetwork.guessFollowsGraph(tweets, new ForkJoinPool(8)));
+        assertEquals(expected, SocialNetwork.guessFollowsGraph(new LinkedList<>(tweets), ForkJoinPool.commonPool()));
+    }
+}
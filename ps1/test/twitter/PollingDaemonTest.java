@@ -0,0 +1,287 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class PollingDaemonTest {
+
+    /*
+     * Testing strategy:
+     *   server: honors ETag, honors only Last-Modified, ignores validators,
+     *           fails with a 500, sends malformed JSON, sends a tweet with a
+     *           bad created_at or id
+     *   sample: first download, unchanged, changed (overlapping the last one)
+     *   cache: empty, filled by an earlier daemon on the same directory,
+     *          holding a malformed body
+     *   results: match Extract and SocialNetwork over every tweet served
+     */
+
+    private static final String SAMPLE_1 = "["
+            + "{\"id\": 1, \"user\": {\"screen_name\": \"alyssa\"}, \"text\": \"hi @bbitdiddle\","
+            + " \"created_at\": \"Wed Feb 17 10:00:00 +0000 2016\"},"
+            + "{\"id\": 2, \"user\": {\"screen_name\": \"bbitdiddle\"}, \"text\": \"hi @alyssa @ben\","
+            + " \"created_at\": \"Wed Feb 17 11:00:00 +0000 2016\"}"
+            + "]";
+
+    private static final String SAMPLE_2 = "["
+            + "{\"id\": 2, \"user\": {\"screen_name\": \"bbitdiddle\"}, \"text\": \"hi @alyssa @ben\","
+            + " \"created_at\": \"Wed Feb 17 11:00:00 +0000 2016\"},"
+            + "{\"id\": 3, \"user\": {\"screen_name\": \"cy\"}, \"text\": \"@ben @alyssa hello\","
+            + " \"created_at\": \"Wed Feb 17 12:00:00 +0000 2016\"}"
+            + "]";
+
+    private HttpServer server;
+    private URL url;
+    private Path cache;
+
+    // what the stand-in server serves, and what it saw
+    private volatile String sample = SAMPLE_1;
+    private volatile String etag = "\"v1\"";
+    private volatile String lastModified = "Wed, 17 Feb 2016 11:00:00 GMT";
+    private volatile int status = 200;
+    private final List<String> conditions = new ArrayList<>();
+    private volatile int bodiesSent = 0;
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/tweets", this::handle);
+        server.start();
+        url = new URL("http", "127.0.0.1", server.getAddress().getPort(), "/tweets");
+        cache = Files.createTempDirectory("tweet-cache");
+    }
+
+    @After
+    public void stopServer() throws IOException {
+        server.stop(0);
+        try (Stream<Path> files = Files.walk(cache)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        String ifModifiedSince = exchange.getRequestHeaders().getFirst("If-Modified-Since");
+        synchronized (conditions) {
+            conditions.add(ifNoneMatch + " " + ifModifiedSince);
+        }
+        if (status != 200) {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+        boolean notModified = etag != null
+                ? etag.equals(ifNoneMatch)
+                : lastModified != null && lastModified.equals(ifModifiedSince);
+        if (notModified) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        if (etag != null) {
+            exchange.getResponseHeaders().set("ETag", etag);
+        }
+        if (lastModified != null) {
+            exchange.getResponseHeaders().set("Last-Modified", lastModified);
+        }
+        byte[] body = sample.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+        bodiesSent++;
+    }
+
+    private String lastCondition() {
+        synchronized (conditions) {
+            return conditions.get(conditions.size() - 1);
+        }
+    }
+
+    @Test
+    public void testFirstPollThenNotModified() throws IOException {
+        PollingDaemon daemon = new PollingDaemon(url, cache);
+        assertNull(daemon.timespan());
+        assertTrue(daemon.influencers(3).isEmpty());
+
+        assertTrue(daemon.poll());
+        assertEquals("null null", lastCondition());
+        assertEquals(Instant.parse("2016-02-17T10:00:00Z"), daemon.timespan().getStart());
+        assertEquals(Instant.parse("2016-02-17T11:00:00Z"), daemon.timespan().getEnd());
+        assertEquals(Arrays.asList("alyssa", "bbitdiddle", "ben"), daemon.influencers(3));
+
+        assertFalse(daemon.poll());
+        assertEquals("\"v1\" Wed, 17 Feb 2016 11:00:00 GMT", lastCondition());
+        assertEquals(1, bodiesSent);
+        assertEquals(2, daemon.polls());
+        assertEquals(1, daemon.downloads());
+        assertEquals(1, daemon.changes());
+    }
+
+    @Test
+    public void testChangedSampleAddsIncrementally() throws IOException {
+        PollingDaemon daemon = new PollingDaemon(url, cache);
+        assertTrue(daemon.poll());
+        sample = SAMPLE_2;
+        etag = "\"v2\"";
+        assertTrue(daemon.poll());
+
+        List<Tweet> all = new ArrayList<>();
+        for (String json : Arrays.asList(SAMPLE_1, SAMPLE_2)) {
+            Path file = Files.createTempFile(cache, "expected", ".json");
+            Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+            all.addAll(TweetStreamReader.readTweetsFromFile(file));
+            Files.delete(file);
+        }
+        assertEquals(Extract.getMentionedUsers(all), daemon.mentionedUsers());
+        assertEquals(Extract.getTimespan(all).getEnd(), daemon.timespan().getEnd());
+        assertEquals(SocialNetwork.guessFollowsGraph(all), daemon.followsGraph());
+        assertEquals(SocialNetwork.influencers(SocialNetwork.guessFollowsGraph(all), 2),
+                daemon.influencers(2));
+        assertEquals(2, daemon.changes());
+        assertEquals(1, daemon.duplicates()); // tweet 2 was in both samples
+    }
+
+    @Test
+    public void testRestartResumesFromCache() throws IOException {
+        new PollingDaemon(url, cache).poll();
+
+        PollingDaemon restarted = new PollingDaemon(url, cache);
+        assertEquals(Arrays.asList("alyssa", "bbitdiddle", "ben"), restarted.influencers(3));
+        assertFalse(restarted.poll());
+        assertEquals("\"v1\" Wed, 17 Feb 2016 11:00:00 GMT", lastCondition());
+        assertEquals(1, bodiesSent);
+        assertEquals(0, restarted.downloads());
+    }
+
+    @Test
+    public void testLastModifiedOnly() throws IOException {
+        etag = null;
+        PollingDaemon daemon = new PollingDaemon(url, cache);
+        assertTrue(daemon.poll());
+        assertFalse(daemon.poll());
+        assertEquals("null Wed, 17 Feb 2016 11:00:00 GMT", lastCondition());
+        assertEquals(1, bodiesSent);
+    }
+
+    @Test
+    public void testServerIgnoringValidatorsSameBody() throws IOException {
+        etag = null;
+        lastModified = null;
+        PollingDaemon daemon = new PollingDaemon(url, cache);
+        assertTrue(daemon.poll());
+        assertFalse(daemon.poll());
+        assertEquals(2, bodiesSent);
+        assertEquals(2, daemon.downloads());
+        assertEquals(1, daemon.changes());
+    }
+
+    @Test
+    public void testServerErrorKeepsResults() throws IOException {
+        PollingDaemon daemon = new PollingDaemon(url, cache);
+        assertTrue(daemon.poll());
+        status = 500;
+        try {
+            daemon.poll();
+            fail("expected IOException");
+        } catch (IOException expected) {
+        }
+        assertEquals(Arrays.asList("alyssa", "bbitdiddle", "ben"), daemon.influencers(3));
+
+        status = 200;
+        assertFalse(daemon.poll());
+        assertEquals("\"v1\" Wed, 17 Feb 2016 11:00:00 GMT", lastCondition());
+    }
+
+    @Test
+    public void testMalformedSampleKeepsCache() throws IOException {
+        PollingDaemon daemon = new PollingDaemon(url, cache);
+        assertTrue(daemon.poll());
+        sample = "[{\"id\": 4,";
+        etag = "\"v2\"";
+        try {
+            daemon.poll();
+            fail("expected IOException");
+        } catch (IOException expected) {
+        }
+        assertEquals(1, daemon.changes());
+
+        PollingDaemon restarted = new PollingDaemon(url, cache);
+        assertEquals(daemon.followsGraph(), restarted.followsGraph());
+        try (Stream<Path> files = Files.list(cache)) {
+            assertEquals(2, files.count()); // no partial downloads left behind
+        }
+    }
+
+    @Test
+    public void testBadFieldsKeepCache() throws IOException {
+        PollingDaemon daemon = new PollingDaemon(url, cache);
+        assertTrue(daemon.poll());
+        String[] samples = {
+            SAMPLE_2.replace("Wed Feb 17 12:00:00 +0000 2016", "yesterday"),
+            SAMPLE_2.replace("\"id\": 3", "\"id\": \"three\""),
+        };
+        for (String bad : samples) {
+            sample = bad;
+            etag = "\"bad\"";
+            try {
+                daemon.poll();
+                fail("expected IOException");
+            } catch (IOException expected) {
+            }
+        }
+        assertEquals(1, daemon.changes());
+        assertEquals(Arrays.asList("alyssa", "bbitdiddle", "ben"), daemon.influencers(3));
+
+        sample = SAMPLE_2;
+        etag = "\"v2\"";
+        assertTrue(daemon.poll());
+        assertEquals(2, daemon.changes());
+    }
+
+    @Test
+    public void testMalformedCacheIsDiscarded() throws IOException {
+        new PollingDaemon(url, cache).poll();
+        try (Stream<Path> files = Files.list(cache)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (file.toString().endsWith(".json")) {
+                    String bad = SAMPLE_1.replace("Wed Feb 17 10:00:00 +0000 2016", "yesterday");
+                    Files.write(file, bad.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+
+        PollingDaemon restarted = new PollingDaemon(url, cache);
+        assertTrue(restarted.influencers(3).isEmpty());
+        assertTrue(restarted.poll());
+        assertEquals("null null", lastCondition());
+        assertEquals(2, bodiesSent);
+        assertEquals(Arrays.asList("alyssa", "bbitdiddle", "ben"), restarted.influencers(3));
+    }
+}
@@ -0,0 +1,109 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+
+/**
+ * Compares loading tweets from a TweetSnapshot with parsing the same tweets
+ * from JSON, by TweetStreamReader and by the parallel decoder. Not a unit
+ * test; run main() with -ea and compare the times printed.
+ *
+ * A snapshot load is timed both as load() alone, which leaves tweets in
+ * columns, and with every tweet materialized by get(), which is the fair
+ * comparison with a JSON parse that builds every Tweet.
+ */
+public class SnapshotBenchmark {
+
+    private static final int TWEETS = 1_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        List<Tweet> tweets = randomTweets(new Random(42));
+        Path json = Files.createTempFile("tweets", ".json");
+        Path snapshot = Files.createTempFile("tweets", ".snapshot");
+        try {
+            writeJson(tweets, json);
+            TweetSnapshot.save(tweets, snapshot);
+            System.out.printf("%d tweets: JSON %d MB, snapshot %d MB%n", TWEETS,
+                    Files.size(json) >> 20, Files.size(snapshot) >> 20);
+
+            ParallelTweetDecoder parallel = new ParallelTweetDecoder();
+            for (int round = 0; round < ROUNDS; round++) {
+                long t0 = System.nanoTime();
+                int streamed = TweetStreamReader.readTweetsFromFile(json).size();
+                long t1 = System.nanoTime();
+                int decoded = parallel.readTweetsFromFile(json).size();
+                long t2 = System.nanoTime();
+                TweetStore store = TweetSnapshot.load(snapshot);
+                long t3 = System.nanoTime();
+                long checksum = 0;
+                for (Tweet tweet : store) {
+                    checksum += tweet.getId() + tweet.getText().length();
+                }
+                long t4 = System.nanoTime();
+                assert streamed == TWEETS && decoded == TWEETS && store.size() == TWEETS && checksum != 0;
+
+                System.out.printf("round %d: JSON stream %d ms, JSON parallel %d ms; "
+                        + "snapshot load %d ms, load + get all %d ms%n",
+                        round, (t1 - t0) / 1_000_000, (t2 - t1) / 1_000_000,
+                        (t3 - t2) / 1_000_000, (t4 - t2) / 1_000_000);
+            }
+        } finally {
+            Files.delete(json);
+            Files.delete(snapshot);
+        }
+    }
+
+    static void writeJson(List<Tweet> tweets, Path path) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+                JsonGenerator json = Json.createGenerator(writer)) {
+            json.writeStartArray();
+            for (Tweet tweet : tweets) {
+                json.writeStartObject()
+                    .write("id", tweet.getId())
+                    .writeStartObject("user").write("screen_name", tweet.getAuthor()).writeEnd()
+                    .write("text", tweet.getText())
+                    .write("created_at", TweetStreamReader.CREATED_AT_FORMAT.format(
+                            tweet.getTimestamp().atOffset(ZoneOffset.UTC)))
+                    .write("retweet_count", tweet.getId() % 100)
+                    .writeEnd();
+            }
+            json.writeEnd();
+        }
+    }
+
+    static List<Tweet> randomTweets(Random random) {
+        String[] vocabulary = { "rivest", "talk", "in", "30", "minutes", "#hype", "is", "it",
+                "reasonable", "so", "much?", "bitdiddle@mit.edu", "RT", "lol", "caf\u00e9" };
+        Instant start = Instant.parse("2016-02-17T10:00:00Z");
+        List<Tweet> tweets = new ArrayList<>(TWEETS);
+        for (int i = 0; i < TWEETS; i++) {
+            StringBuilder text = new StringBuilder();
+            int words = 5 + random.nextInt(15);
+            for (int w = 0; w < words; w++) {
+                if (random.nextInt(8) == 0) {
+                    text.append("@user").append(random.nextInt(5000));
+                } else {
+                    text.append(vocabulary[random.nextInt(vocabulary.length)]);
+                }
+                text.append(' ');
+            }
+            tweets.add(new Tweet(i, "user" + random.nextInt(5000), text.toString(), start.plusSeconds(i)));
+        }
+        return tweets;
+    }
+}
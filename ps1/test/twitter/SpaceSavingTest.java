@@ -0,0 +1,61 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SpaceSavingTest {
+
+    /*
+     * Testing strategy:
+     *   distinct strings: fewer than capacity (exact), many more (skewed)
+     *   queries: top, bounds of tracked and untracked strings, minCount
+     */
+
+    @Test
+    public void testExactUnderCapacity() {
+        SpaceSaving summary = new SpaceSaving(4);
+        for (String term : "b a c a b a".split(" ")) {
+            summary.add(term);
+        }
+        assertEquals(6, summary.totalCount());
+        assertEquals(0, summary.minCount());
+        assertEquals(Arrays.asList("a", "b", "c"), summary.top(5));
+        assertEquals(Arrays.asList("a"), summary.top(1));
+        assertEquals(3, summary.lowerBound("a"));
+        assertEquals(3, summary.upperBound("a"));
+        assertEquals(0, summary.upperBound("zzz"));
+    }
+
+    @Test
+    public void testSkewedStreamGuarantees() {
+        final int capacity = 50;
+        SpaceSaving summary = new SpaceSaving(capacity);
+        Map<String, Integer> truth = new HashMap<>();
+        Random random = new Random(22);
+        for (int i = 0; i < 100000; i++) {
+            // a few heavy hitters over a long tail
+            String term = random.nextInt(4) == 0 ? "hot" + random.nextInt(5) : "tail" + random.nextInt(20000);
+            truth.merge(term, 1, Integer::sum);
+            summary.add(term);
+        }
+        for (Map.Entry<String, Integer> entry : truth.entrySet()) {
+            String term = entry.getKey();
+            int count = entry.getValue();
+            assertTrue(term, summary.lowerBound(term) <= count);
+            assertTrue(term, summary.upperBound(term) >= count);
+            if (count > summary.totalCount() / capacity) {
+                assertTrue(term, summary.tracked().contains(term));
+            }
+        }
+        assertEquals(5, summary.top(5).stream().filter(t -> t.startsWith("hot")).count());
+    }
+}
@@ -0,0 +1,140 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class StandingQueryEngineTest {
+
+    /*
+     * Testing strategy:
+     *   subscription: author only, words only, window only, none (catch-all),
+     *                 author + words + window
+     *   tweet: matches none, one, several subscriptions; several of its words
+     *          match the same subscription; differs in case from the query
+     *   unsubscribe: live id, id reused after unsubscribe, unknown id
+     *   agrees with Filter on many subscriptions
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+    private static final Instant d3 = Instant.parse("2016-02-17T12:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "Alyssa", "Talk TALK talk", d3);
+
+    @Test
+    public void testSingleConstraints() {
+        StandingQueryEngine engine = new StandingQueryEngine();
+        List<Tweet> byAuthor = new ArrayList<>();
+        List<Tweet> byWord = new ArrayList<>();
+        List<Tweet> byWindow = new ArrayList<>();
+        List<Tweet> all = new ArrayList<>();
+        engine.subscribe("ALYSSA", null, null, byAuthor::add);
+        engine.subscribe(null, Arrays.asList("Rivest"), null, byWord::add);
+        engine.subscribe(null, null, new Timespan(d2, d3), byWindow::add);
+        engine.subscribe(null, null, null, all::add);
+        assertEquals(4, engine.size());
+
+        assertEquals(3, engine.publish(tweet1));
+        assertEquals(3, engine.publish(tweet2));
+        assertEquals(3, engine.publish(tweet3));
+
+        assertEquals(Arrays.asList(tweet1, tweet3), byAuthor);
+        assertEquals(Arrays.asList(tweet1, tweet2), byWord);
+        assertEquals(Arrays.asList(tweet2, tweet3), byWindow);
+        assertEquals(Arrays.asList(tweet1, tweet2, tweet3), all);
+    }
+
+    @Test
+    public void testCombinedConstraintsDeliverOnce() {
+        StandingQueryEngine engine = new StandingQueryEngine();
+        List<Tweet> delivered = new ArrayList<>();
+        engine.subscribe(null, Arrays.asList("talk", "rivest", "hype"), new Timespan(d1, d2), delivered::add);
+        List<Tweet> alyssa = new ArrayList<>();
+        engine.subscribe("alyssa", Arrays.asList("talk"), new Timespan(d1, d3), alyssa::add);
+
+        assertEquals(2, engine.publish(tweet1));
+        assertEquals(1, engine.publish(tweet2));
+        assertEquals(1, engine.publish(tweet3));
+        assertEquals(0, engine.publish(new Tweet(4, "alyssa", "nothing here", d2)));
+
+        assertEquals(Arrays.asList(tweet1, tweet2), delivered);
+        assertEquals(Arrays.asList(tweet1, tweet3), alyssa);
+    }
+
+    @Test
+    public void testUnsubscribe() {
+        StandingQueryEngine engine = new StandingQueryEngine();
+        List<Tweet> first = new ArrayList<>();
+        List<Tweet> second = new ArrayList<>();
+        int a = engine.subscribe(null, Arrays.asList("talk"), null, first::add);
+        int b = engine.subscribe("alyssa", null, null, second::add);
+        engine.unsubscribe(a);
+        assertEquals(1, engine.size());
+        assertEquals(1, engine.publish(tweet3));
+        assertEquals(Arrays.asList(), first);
+        assertEquals(Arrays.asList(tweet3), second);
+
+        engine.unsubscribe(b);
+        assertEquals(0, engine.publish(tweet3));
+        int c = engine.subscribe(null, null, null, first::add);
+        assertEquals(1, engine.publish(tweet1));
+        assertEquals(Arrays.asList(tweet1), first);
+        engine.unsubscribe(c);
+        assertEquals(0, engine.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsubscribeUnknown() {
+        StandingQueryEngine engine = new StandingQueryEngine();
+        int id = engine.subscribe(null, null, null, tweet -> { });
+        engine.unsubscribe(id);
+        engine.unsubscribe(id);
+    }
+
+    @Test
+    public void testManySubscriptionsMatchFilter() {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            tweets.add(new Tweet(i, "user" + (i % 7), "word" + (i % 13) + " and WORD" + (i % 17),
+                    d1.plusSeconds(i)));
+        }
+        StandingQueryEngine engine = new StandingQueryEngine();
+        List<List<Tweet>> received = new ArrayList<>();
+        List<List<Tweet>> expected = new ArrayList<>();
+        for (int s = 0; s < 2000; s++) {
+            List<Tweet> inbox = new ArrayList<>();
+            received.add(inbox);
+            String author = s % 3 == 0 ? "USER" + (s % 7) : null;
+            List<String> words = s % 2 == 0 ? Arrays.asList("word" + (s % 19), "Word" + (s % 11)) : null;
+            Timespan window = s % 5 == 0 ? new Timespan(d1.plusSeconds(s % 100), d1.plusSeconds(s % 100 + 50)) : null;
+            engine.subscribe(author, words, window, inbox::add);
+
+            List<Tweet> matching = tweets;
+            if (author != null) {
+                matching = Filter.writtenBy(matching, author);
+            }
+            if (words != null) {
+                matching = Filter.containing(matching, words);
+            }
+            if (window != null) {
+                matching = Filter.inTimespan(matching, window);
+            }
+            expected.add(matching);
+        }
+        for (Tweet tweet : tweets) {
+            engine.publish(tweet);
+        }
+        assertEquals(expected, received);
+    }
+}
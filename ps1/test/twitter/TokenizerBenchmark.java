@@ -0,0 +1,135 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the regex-based text scans that Extract, Filter and SocialNetwork
+ * used to do with the single-pass TweetTokenizer. Not a unit test; run main()
+ * with -ea and compare the times printed.
+ *
+ * The old guessFollowsGraph matched @(\w+), which also finds mentions inside
+ * email addresses and stops at "-", so its graph is not the same as the
+ * scanner's; the edge counts of both are printed next to the times.
+ */
+public class TokenizerBenchmark {
+
+    private static final int TWEETS = 200_000;
+    private static final int ROUNDS = 5;
+
+    private static final Pattern EXTRACT_MENTION =
+            Pattern.compile("(?<=^|[^A-Za-z0-9_-])@([A-Za-z0-9_-]+)(?=[^A-Za-z0-9_-]|$)");
+    private static final Pattern GRAPH_MENTION = Pattern.compile("@(\\w+)");
+
+    public static void main(String[] args) {
+        List<Tweet> tweets = randomTweets(new Random(42));
+        List<String> query = new ArrayList<>();
+        query.add("rivest");
+        query.add("NOSUCHWORD");
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long t0 = System.nanoTime();
+            int regexMentions = regexMentions(tweets).size();
+            long t1 = System.nanoTime();
+            int scanMentions = Extract.getMentionedUsers(tweets).size();
+            long t2 = System.nanoTime();
+            int regexMatches = regexContaining(tweets, query);
+            long t3 = System.nanoTime();
+            int scanMatches = Filter.containing(tweets, query).size();
+            long t4 = System.nanoTime();
+            assert regexMentions == scanMentions && regexMatches == scanMatches;
+
+            System.out.printf("round %d: mentions regex %d ms, scanner %d ms; containing split %d ms, scanner %d ms%n",
+                    round, (t1 - t0) / 1_000_000, (t2 - t1) / 1_000_000,
+                    (t3 - t2) / 1_000_000, (t4 - t3) / 1_000_000);
+
+            long t5 = System.nanoTime();
+            int regexEdges = edges(regexFollowsGraph(tweets));
+            long t6 = System.nanoTime();
+            int scanEdges = edges(SocialNetwork.guessFollowsGraph(tweets));
+            long t7 = System.nanoTime();
+            System.out.printf("round %d: follows graph regex %d ms (%d edges), scanner %d ms (%d edges)%n",
+                    round, (t6 - t5) / 1_000_000, regexEdges, (t7 - t6) / 1_000_000, scanEdges);
+        }
+    }
+
+    private static Set<String> regexMentions(List<Tweet> tweets) {
+        Set<String> mentioned = new HashSet<>();
+        for (Tweet tweet : tweets) {
+            Matcher matcher = EXTRACT_MENTION.matcher(tweet.getText());
+            while (matcher.find()) {
+                mentioned.add(matcher.group(1).toLowerCase());
+            }
+        }
+        return mentioned;
+    }
+
+    private static Map<String, Set<String>> regexFollowsGraph(List<Tweet> tweets) {
+        Map<String, Set<String>> graph = new HashMap<>();
+        for (Tweet tweet : tweets) {
+            String author = tweet.getAuthor().toLowerCase();
+            Matcher matcher = GRAPH_MENTION.matcher(tweet.getText().toLowerCase());
+            while (matcher.find()) {
+                String mentioned = matcher.group(1);
+                if (!mentioned.equals(author)) {
+                    graph.computeIfAbsent(author, a -> new HashSet<>()).add(mentioned);
+                }
+            }
+        }
+        return graph;
+    }
+
+    private static int edges(Map<String, Set<String>> graph) {
+        int edges = 0;
+        for (Set<String> follows : graph.values()) {
+            edges += follows.size();
+        }
+        return edges;
+    }
+
+    private static int regexContaining(List<Tweet> tweets, List<String> words) {
+        int count = 0;
+        for (Tweet tweet : tweets) {
+            for (String tw : tweet.getText().toLowerCase(Locale.ROOT).split("\\s+")) {
+                if (words.stream().anyMatch(w -> w.toLowerCase(Locale.ROOT).equals(tw))) {
+                    count++;
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static List<Tweet> randomTweets(Random random) {
+        String[] vocabulary = { "rivest", "talk", "in", "30", "minutes", "#hype", "is", "it",
+                "reasonable", "so", "much?", "bitdiddle@mit.edu", "RT", "lol" };
+        Instant start = Instant.parse("2016-02-17T10:00:00Z");
+        List<Tweet> tweets = new ArrayList<>(TWEETS);
+        for (int i = 0; i < TWEETS; i++) {
+            StringBuilder text = new StringBuilder();
+            int words = 5 + random.nextInt(15);
+            for (int w = 0; w < words; w++) {
+                if (random.nextInt(8) == 0) {
+                    text.append("@user").append(random.nextInt(5000));
+                } else {
+                    text.append(vocabulary[random.nextInt(vocabulary.length)]);
+                }
+                text.append(' ');
+            }
+            tweets.add(new Tweet(i, "user" + random.nextInt(5000), text.toString(), start.plusSeconds(i)));
+        }
+        return tweets;
+    }
+}
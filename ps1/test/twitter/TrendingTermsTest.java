@@ -0,0 +1,55 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class TrendingTermsTest {
+
+    /*
+     * Testing strategy:
+     *   terms: words, short words, hashtags in mixed case, mentions, words
+     *          that are hashtags or mentions
+     *   windows: first window (empty baseline), next window, a gap of more
+     *            than one window, late tweets
+     *   ranking: below minCount, new term vs. term steady since baseline
+     */
+
+    private static final Instant t0 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static Tweet tweet(String text, long minutes) {
+        return new Tweet(1, "author", text, t0.plus(Duration.ofMinutes(minutes)));
+    }
+
+    @Test
+    public void testTerms() {
+        TrendingTerms trends = new TrendingTerms(Duration.ofMinutes(10), 100, 1);
+        trends.accept(tweet("Rivest talk at #MIT, @bob is #mit fan of a talk", 0));
+        assertEquals(Arrays.asList("#mit", "talk", "fan", "rivest"), trends.trending(5));
+        assertEquals(Arrays.asList(), trends.trending(0));
+    }
+
+    @Test
+    public void testAcceleratingTermsAgainstBaseline() {
+        TrendingTerms trends = new TrendingTerms(Duration.ofMinutes(10), 100, 3);
+        for (int i = 0; i < 10; i++) {
+            trends.accept(tweet("weather report today", i));
+        }
+        for (int i = 0; i < 10; i++) {
+            trends.accept(tweet("weather report " + (i < 5 ? "#breaking news" : "today"), 10 + i));
+        }
+        trends.accept(tweet("late tweet for the old window #ignored #ignored #ignored", 9));
+        assertEquals(Arrays.asList("#breaking", "news", "report", "weather"), trends.trending(4));
+
+        // a window with no tweets in between: the baseline is empty
+        trends.accept(tweet("weather weather weather", 45));
+        assertEquals(Arrays.asList("weather"), trends.trending(4));
+    }
+}
@@ -0,0 +1,123 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class TweetDeduplicatorTest {
+
+    /*
+     * Testing strategy:
+     *   ids: distinct, repeated; extreme values (0, negative, MIN/MAX_VALUE)
+     *   count: few, many (table grows), many over a long time (table evicts)
+     *   timestamp: within the retention, older than the retention
+     *   Bloom filter: absent, present
+     *   input: list, (parallel) stream
+     */
+
+    private static final Instant T0 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static Tweet tweet(long id, long minutes) {
+        return new Tweet(id, "alyssa", "tweet " + id, T0.plus(Duration.ofMinutes(minutes)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeRetention() {
+        new TweetDeduplicator(Duration.ofMinutes(-1));
+    }
+
+    @Test
+    public void testDistinctKeepsFirstInOrder() {
+        TweetDeduplicator seen = new TweetDeduplicator();
+        List<Tweet> kept = seen.distinct(Arrays.asList(tweet(3, 0), tweet(1, 1), tweet(3, 0), tweet(2, 2), tweet(1, 1)));
+        assertEquals(Arrays.asList(3L, 1L, 2L), Arrays.asList(kept.get(0).getId(), kept.get(1).getId(), kept.get(2).getId()));
+        assertEquals(3, kept.size());
+        assertEquals(2, seen.duplicateCount());
+        assertEquals(3, seen.retainedCount());
+    }
+
+    @Test
+    public void testDistinctStream() {
+        TweetDeduplicator seen = new TweetDeduplicator();
+        List<Long> kept = seen.distinct(Stream.of(tweet(3, 0), tweet(1, 1), tweet(3, 0), tweet(1, 1)).parallel())
+                .map(Tweet::getId)
+                .collect(Collectors.toList());
+        assertEquals(Arrays.asList(3L, 1L), kept);
+        assertEquals(2, seen.duplicateCount());
+    }
+
+    @Test
+    public void testExtremeIds() {
+        TweetDeduplicator seen = new TweetDeduplicator(Duration.ofHours(1));
+        long[] ids = { 0, -1, 1, Long.MIN_VALUE, Long.MAX_VALUE, 64, 128 };
+        for (long id : ids) {
+            assertTrue(seen.add(tweet(id, 0)));
+        }
+        for (long id : ids) {
+            assertFalse(seen.add(tweet(id, 0)));
+        }
+    }
+
+    @Test
+    public void testManyIdsMatchHashSet() {
+        TweetDeduplicator seen = new TweetDeduplicator(Duration.ofDays(1));
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(6005);
+        for (int i = 0; i < 200_000; i++) {
+            long id = random.nextInt(100_000) * 0x9e3779b97f4a7c15L;
+            assertEquals(expected.add(id), seen.add(tweet(id, i % 60)));
+        }
+        assertEquals(expected.size(), seen.retainedCount());
+    }
+
+    @Test
+    public void testEvictionBoundsMemory() {
+        TweetDeduplicator seen = new TweetDeduplicator(Duration.ofMinutes(10));
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(seen.add(tweet(i, i / 100))); // 100 tweets a minute for 1000 minutes
+        }
+        // at most 11 minutes of tweets, plus those added since the last eviction
+        assertTrue("retained " + seen.retainedCount(), seen.retainedCount() < 4 * 1100);
+
+        // recent duplicates are still dropped exactly
+        assertFalse(seen.add(tweet(99_999, 999)));
+        assertFalse(seen.add(tweet(99_000, 990)));
+    }
+
+    @Test
+    public void testOlderDuplicateWithoutBloomKept() {
+        TweetDeduplicator seen = new TweetDeduplicator(Duration.ofMinutes(10));
+        for (int i = 0; i < 10_000; i++) {
+            seen.add(tweet(i, i / 10));
+        }
+        assertTrue(seen.add(tweet(5, 0)));
+        assertTrue(seen.add(tweet(5, 0)));
+    }
+
+    @Test
+    public void testOlderDuplicateWithBloomDropped() {
+        TweetDeduplicator seen = new TweetDeduplicator(Duration.ofMinutes(10), 100_000, 1e-4);
+        for (int i = 0; i < 10_000; i++) {
+            seen.add(tweet(i, i / 10));
+        }
+        assertTrue(seen.retainedCount() < 10_000);
+        for (int i = 0; i < 10_000; i++) {
+            assertFalse("id " + i, seen.add(tweet(i, i / 10)));
+        }
+        assertTrue(seen.add(tweet(-7, 0)));
+        assertFalse(seen.add(tweet(-7, 0)));
+    }
+}
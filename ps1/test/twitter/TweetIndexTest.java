@@ -0,0 +1,159 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TweetIndexTest {
+
+    /*
+     * Testing strategy:
+     *   index: empty, built from a list, grown with add()
+     *   containing: no query words, word absent, word repeated in one tweet,
+     *               several words matching overlapping tweets, case differences,
+     *               ordinals with large gaps (multi-byte varints)
+     *   writtenBy: unknown user, user with several case variants of the
+     *              username, after add()
+     *   inTimespan: span before/after all tweets, span of one instant, span
+     *               whose endpoints equal tweet times, tweets added out of
+     *               time order after an earlier query
+     *   query: single term, and/or of terms, nested; terms matching nothing;
+     *          selective term combined with a broad one (probe path) and two
+     *          broad terms (bitmap intersection path)
+     *   results are compared against Filter, which defines the expected answers
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "Alyssa", "Talk talk TALK", d2);
+
+    @Test
+    public void testContainingEmptyIndex() {
+        assertTrue(new TweetIndex().containing(Arrays.asList("talk")).isEmpty());
+    }
+
+    @Test
+    public void testContainingMatchesFilter() {
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3);
+        TweetIndex index = new TweetIndex(tweets);
+
+        for (List<String> words : Arrays.asList(
+                Arrays.<String>asList(),
+                Arrays.asList("nothing"),
+                Arrays.asList("TALK"),
+                Arrays.asList("much?", "#hype"),
+                Arrays.asList("rivest", "talk", "Rivest"))) {
+            assertEquals(words.toString(), Filter.containing(tweets, words), index.containing(words));
+        }
+        assertEquals(3, index.wordFrequency("talk"));
+    }
+
+    @Test
+    public void testContainingLargeGapsAfterAdd() {
+        Random random = new Random(1);
+        List<Tweet> tweets = new ArrayList<>();
+        TweetIndex index = new TweetIndex();
+        for (int i = 0; i < 50_000; i++) {
+            String text = random.nextInt(2000) == 0 ? "rare word" : "common word " + (i % 7);
+            Tweet tweet = new Tweet(i, "user" + (i % 13), text, d1.plusSeconds(i));
+            tweets.add(tweet);
+            assertEquals(i, index.add(tweet));
+        }
+        List<String> words = Arrays.asList("rare", "3");
+        assertEquals(Filter.containing(tweets, words), index.containing(words));
+    }
+
+    @Test
+    public void testWrittenByMatchesFilter() {
+        List<Tweet> tweets = new ArrayList<>(Arrays.asList(tweet1, tweet2, tweet3));
+        TweetIndex index = new TweetIndex(tweets);
+
+        assertTrue(index.writtenBy("nobody").isEmpty());
+        assertEquals(Filter.writtenBy(tweets, "ALYSSA"), index.writtenBy("ALYSSA"));
+        assertEquals(Arrays.asList(tweet1, tweet3), index.writtenBy("alyssa"));
+
+        Tweet tweet4 = new Tweet(4, "bBitDiddle", "hi", d2);
+        tweets.add(tweet4);
+        index.add(tweet4);
+        assertEquals(Filter.writtenBy(tweets, "bbitdiddle"), index.writtenBy("bbitdiddle"));
+    }
+
+    @Test
+    public void testInTimespanMatchesFilter() {
+        List<Tweet> tweets = new ArrayList<>(Arrays.asList(tweet2, tweet1, tweet3));
+        TweetIndex index = new TweetIndex(tweets);
+        Instant before = d1.minusSeconds(60);
+        Instant after = d2.plusSeconds(60);
+
+        for (Timespan span : Arrays.asList(
+                new Timespan(before, before),
+                new Timespan(after, after),
+                new Timespan(d2, d2),
+                new Timespan(d1, d2),
+                new Timespan(before, after))) {
+            assertEquals(span.toString(), Filter.inTimespan(tweets, span), index.inTimespan(span));
+        }
+
+        Random random = new Random(2);
+        for (int i = 10; i < 500; i++) {
+            Tweet tweet = new Tweet(i, "user", "text", d1.plusMillis(random.nextInt(7_200_000)));
+            tweets.add(tweet);
+            index.add(tweet);
+        }
+        Timespan span = new Timespan(d1.plusSeconds(600), d2.plusSeconds(600));
+        assertEquals(Filter.inTimespan(tweets, span), index.inTimespan(span));
+        assertEquals(Filter.inTimespan(tweets, span).size(), index.countInTimespan(span));
+    }
+
+    @Test
+    public void testQueryMatchesChainedFilters() {
+        Random random = new Random(3);
+        String[] vocabulary = { "rivest", "talk", "hype", "lol", "mit" };
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            String text = vocabulary[random.nextInt(vocabulary.length)] + " "
+                    + vocabulary[random.nextInt(vocabulary.length)];
+            String author = i % 1000 == 0 ? "rare" : "user" + random.nextInt(3);
+            tweets.add(new Tweet(i, author, text, d1.plusSeconds(i)));
+        }
+        TweetIndex index = new TweetIndex(tweets);
+        Timespan span = new Timespan(d1.plusSeconds(5_000), d1.plusSeconds(15_000));
+        List<String> words = Arrays.asList("Rivest", "hype");
+
+        List<Tweet> expected = Filter.containing(Filter.inTimespan(Filter.writtenBy(tweets, "RARE"), span), words);
+        assertEquals(expected, index.query(TweetQuery.and(
+                TweetQuery.containing(words), TweetQuery.inTimespan(span), TweetQuery.writtenBy("RARE"))));
+
+        expected = Filter.containing(Filter.inTimespan(Filter.writtenBy(tweets, "user1"), span), words);
+        assertEquals(expected, index.query(TweetQuery.and(
+                TweetQuery.writtenBy("user1"), TweetQuery.inTimespan(span), TweetQuery.containing(words))));
+        assertEquals(expected.size(), index.count(TweetQuery.and(
+                TweetQuery.containing(words), TweetQuery.writtenBy("user1"), TweetQuery.inTimespan(span))));
+
+        assertTrue(index.query(TweetQuery.and(TweetQuery.writtenBy("nobody"), TweetQuery.inTimespan(span))).isEmpty());
+
+        List<Tweet> either = index.query(TweetQuery.or(TweetQuery.writtenBy("rare"),
+                TweetQuery.and(TweetQuery.writtenBy("user2"), TweetQuery.containing(Arrays.asList("mit")))));
+        for (int i = 0; i < tweets.size(); i++) {
+            Tweet tweet = tweets.get(i);
+            boolean match = tweet.getAuthor().equals("rare")
+                    || (tweet.getAuthor().equals("user2") && tweet.getText().contains("mit"));
+            assertEquals(tweet.toString(), match, either.contains(tweet));
+        }
+        for (int i = 1; i < either.size(); i++) {
+            assertTrue("expected input order", either.get(i - 1).getId() < either.get(i).getId());
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.json.JsonException;
+
+import org.junit.Test;
+
+public class TweetPipelineTest {
+
+    /*
+     * Testing strategy:
+     *   tweets: none, few, many more than the queue capacity (backpressure),
+     *           repeated
+     *   stream: delivered whole, delivered a byte at a time
+     *   input: valid, malformed JSON, read fails partway, many queues' worth
+     *          of whitespace or of data after the array
+     *   results: match Extract and SocialNetwork on the same tweets; stage
+     *            stats in pipeline order with consistent item counts
+     */
+
+    private static String json(int tweets) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < tweets; i++) {
+            if (i > 0) {
+                json.append(",\n");
+            }
+            json.append("{\"id\": ").append(i)
+                .append(", \"user\": {\"screen_name\": \"User").append(i % 13).append("\"}")
+                .append(", \"text\": \"hi @user").append(i % 7).append(" and @User").append(i % 29).append("\"")
+                .append(", \"created_at\": \"Wed Feb 17 1").append(i % 10).append(":00:00 +0000 2016\"}");
+        }
+        return json.append("]").toString();
+    }
+
+    private static List<Tweet> decode(String json) {
+        List<Tweet> tweets = new ArrayList<>();
+        Iterator<Tweet> it = TweetStreamReader.iterateTweets(new StringReader(json));
+        while (it.hasNext()) {
+            tweets.add(it.next());
+        }
+        return tweets;
+    }
+
+    private static InputStream bytes(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertMatchesSequential(String json, TweetPipeline.Result result, int k) {
+        List<Tweet> tweets = decode(json);
+        Timespan span = Extract.getTimespan(tweets);
+        assertEquals(span.getStart(), result.timespan().getStart());
+        assertEquals(span.getEnd(), result.timespan().getEnd());
+        assertEquals(Extract.getMentionedUsers(tweets), result.mentionedUsers());
+        Map<String, Set<String>> graph = SocialNetwork.guessFollowsGraph(tweets);
+        Set<String> users = new HashSet<>(graph.keySet());
+        users.addAll(result.followsGraph().keySet());
+        for (String user : users) {
+            assertEquals(graph.getOrDefault(user, Collections.emptySet()),
+                    result.followsGraph().getOrDefault(user, Collections.emptySet()));
+        }
+        assertEquals(SocialNetwork.influencers(graph, k), result.influencers());
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        TweetPipeline.Result result = new TweetPipeline(4, 10).run(bytes("[]"));
+        assertNull(result.timespan());
+        assertTrue(result.mentionedUsers().isEmpty());
+        assertTrue(result.followsGraph().isEmpty());
+        assertTrue(result.influencers().isEmpty());
+    }
+
+    @Test
+    public void testFewTweets() throws IOException {
+        String json = json(5);
+        assertMatchesSequential(json, new TweetPipeline(4, 3).run(bytes(json)), 3);
+    }
+
+    @Test
+    public void testManyTweetsSmallQueues() throws IOException {
+        String json = json(5000);
+        TweetPipeline.Result result = new TweetPipeline(2, 10).run(bytes(json));
+        assertMatchesSequential(json, result, 10);
+
+        List<String> names = new ArrayList<>();
+        for (TweetPipeline.Stage stage : result.stages()) {
+            names.add(stage.name());
+            assertTrue(stage.busyNanos() >= 0);
+            assertTrue(stage.finishedNanos() > 0);
+        }
+        assertEquals(Arrays.asList("ingest", "decode", "extract", "graph", "rank"), names);
+        assertEquals(5000, result.stages().get(1).items());
+        assertEquals(5000, result.stages().get(2).items());
+        assertEquals(5000, result.stages().get(3).items());
+        assertEquals(1, result.stages().get(4).items());
+        assertTrue(result.stages().get(4).finishedNanos() >= result.stages().get(3).finishedNanos());
+    }
+
+    @Test
+    public void testTrickleInput() throws IOException {
+        String json = json(50);
+        InputStream trickle = new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)) {
+            @Override public synchronized int read(byte[] buffer, int off, int len) {
+                return super.read(buffer, off, Math.min(len, 1));
+            }
+        };
+        assertMatchesSequential(json, new TweetPipeline(3, 5).run(trickle), 5);
+    }
+
+    @Test
+    public void testDuplicatesDropped() throws IOException {
+        String json = json(300);
+        String repeated = json.substring(0, json.length() - 1) + ",\n" + json.substring(1);
+        TweetPipeline.Result result = new TweetPipeline(4, 10).run(bytes(repeated));
+        assertEquals(300, result.duplicates());
+        assertEquals(600, result.stages().get(1).items());
+        assertEquals(300, result.stages().get(2).items());
+        assertEquals(300, result.stages().get(3).items());
+        assertMatchesSequential(json, result, 10);
+    }
+
+    @Test(expected = JsonException.class)
+    public void testMalformed() throws IOException {
+        new TweetPipeline(2, 10).run(bytes(json(1000).replace("\"id\": 500,", "\"id\": ,")));
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadFails() throws IOException {
+        InputStream failing = new FilterInputStream(bytes(json(1000))) {
+            private int reads = 0;
+            @Override public int read(byte[] buffer, int off, int len) throws IOException {
+                if (++reads > 10) {
+                    throw new IOException("connection reset");
+                }
+                return super.read(buffer, off, Math.min(len, 100));
+            }
+        };
+        new TweetPipeline(2, 10).run(failing);
+    }
+
+    private static String padding(int bytes) {
+        char[] spaces = new char[bytes];
+        Arrays.fill(spaces, ' ');
+        return new String(spaces);
+    }
+
+    @Test(timeout = 60_000)
+    public void testLargeTrailingWhitespace() throws IOException {
+        String json = json(100);
+        TweetPipeline.Result result = new TweetPipeline(2, 10).run(bytes(json + padding(4 << 20)));
+        assertMatchesSequential(json, result, 10);
+    }
+
+    @Test(timeout = 60_000, expected = JsonException.class)
+    public void testLargeTrailingData() throws IOException {
+        String json = json(100);
+        new TweetPipeline(2, 10).run(bytes(json + padding(4 << 20) + json));
+    }
+}
@@ -0,0 +1,162 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TweetSnapshotTest {
+
+    /*
+     * Testing strategy:
+     *   number of tweets: 0, >1
+     *   authors: distinct, repeated
+     *   text: ASCII, non-ASCII, empty
+     *   timestamps: whole seconds, with nanoseconds
+     *   file: valid snapshot, not a snapshot, corrupt header counts,
+     *         truncated, author code out of range, text offsets not starting
+     *         at 0, decreasing or past the blob; columns larger than one I/O
+     *         buffer
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00.123456789Z");
+
+    private static List<Tweet> roundTrip(List<Tweet> tweets) throws IOException {
+        Path file = Files.createTempFile("tweets", ".snapshot");
+        try {
+            TweetSnapshot.save(tweets, file);
+            return new ArrayList<>(TweetSnapshot.load(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void assertSameTweets(List<Tweet> expected, List<Tweet> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            assertEquals(expected.get(i).getAuthor(), actual.get(i).getAuthor());
+            assertEquals(expected.get(i).getText(), actual.get(i).getText());
+            assertEquals(expected.get(i).getTimestamp(), actual.get(i).getTimestamp());
+        }
+    }
+
+    @Test
+    public void testRoundTripEmpty() throws IOException {
+        assertTrue(roundTrip(new ArrayList<Tweet>()).isEmpty());
+    }
+
+    @Test
+    public void testRoundTripSeveralTweets() throws IOException {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1),
+                new Tweet(Long.MAX_VALUE, "bbitdiddle", "caf\u00e9 \ud83d\ude00 #hype", d2),
+                new Tweet(3, "alyssa", "", d1));
+        assertSameTweets(tweets, roundTrip(tweets));
+    }
+
+    @Test
+    public void testRoundTripAcrossBuffers() throws IOException {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 150_000; i++) {
+            tweets.add(new Tweet(i, "user" + i % 1000, "tweet number " + i + " \u00e9",
+                    i % 2 == 0 ? d1.plusSeconds(i) : d2.plusSeconds(i)));
+        }
+        assertSameTweets(tweets, roundTrip(tweets));
+    }
+
+    private static void assertLoadFails(byte[] contents) throws IOException {
+        Path file = Files.createTempFile("tweets", ".snapshot");
+        try {
+            Files.write(file, contents);
+            TweetSnapshot.load(file);
+            fail("expected IOException");
+        } catch (IOException expected) {
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testLoadCorruptOrTruncated() throws IOException {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1),
+                new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2));
+        Path file = Files.createTempFile("tweets", ".snapshot");
+        byte[] valid;
+        try {
+            TweetSnapshot.save(tweets, file);
+            valid = Files.readAllBytes(file);
+        } finally {
+            Files.delete(file);
+        }
+
+        // tweet count in the header: huge, negative
+        for (int count : new int[] { Integer.MAX_VALUE, 200_000_000, -1 }) {
+            byte[] corrupt = valid.clone();
+            ByteBuffer.wrap(corrupt).putInt(8, count);
+            assertLoadFails(corrupt);
+        }
+        // every proper prefix
+        for (int length = 0; length < valid.length; length++) {
+            assertLoadFails(Arrays.copyOf(valid, length));
+        }
+    }
+
+    @Test
+    public void testLoadCorruptColumns() throws IOException {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(1, "alyssa", "rivest", d1),
+                new Tweet(2, "bbitdiddle", "talk", d1));
+        Path file = Files.createTempFile("tweets", ".snapshot");
+        byte[] valid;
+        try {
+            TweetSnapshot.save(tweets, file);
+            valid = Files.readAllBytes(file);
+        } finally {
+            Files.delete(file);
+        }
+        // layout: header 12, ids 16, seconds 16, nanos flag 1, author count 4,
+        // authors 4 + 6 and 4 + 10, codes 8, offsets 12, blob 10
+        final int codes = 12 + 16 + 16 + 1 + 4 + 10 + 14;
+        final int offsets = codes + 8;
+        assertEquals(offsets + 12 + 10, valid.length);
+
+        // texts "rivest" and "talk" have offsets 0, 6, 10
+        int[][] corruptions = {
+            { codes, 2 },        // author code past the dictionary
+            { codes + 4, -1 },   // negative author code
+            { offsets, 1 },      // first text offset not 0
+            { offsets + 4, 11 }, // offsets decrease: 0, 11, 10
+            { offsets + 8, 11 }, // last offset past the blob
+        };
+        for (int[] corruption : corruptions) {
+            byte[] corrupt = valid.clone();
+            ByteBuffer.wrap(corrupt).putInt(corruption[0], corruption[1]);
+            assertLoadFails(corrupt);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadNotASnapshot() throws IOException {
+        Path file = Files.createTempFile("tweets", ".json");
+        try {
+            Files.write(file, "[]".getBytes("UTF-8"));
+            TweetSnapshot.load(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
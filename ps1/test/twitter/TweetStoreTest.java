@@ -0,0 +1,71 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TweetStoreTest {
+
+    /*
+     * Testing strategy:
+     *   size: 0, 1, more than the initial capacity (columns must grow)
+     *   authors: repeated (shared code), distinct
+     *   timestamps: whole seconds, fractional seconds appearing after growth
+     *   use as a List<Tweet> by Extract and Filter
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+
+    @Test
+    public void testEmpty() {
+        TweetStore store = new TweetStore();
+        assertTrue(store.isEmpty());
+        assertEquals(0, store.authorCount());
+    }
+
+    @Test
+    public void testColumnsMatchTweets() {
+        TweetStore store = TweetStore.copyOf(Arrays.asList(tweet1, tweet2, new Tweet(3, "alyssa", "@bbitdiddle hi", d2)));
+
+        assertEquals(3, store.size());
+        assertEquals(2, store.authorCount());
+        assertEquals(store.getAuthorCode(0), store.getAuthorCode(2));
+        assertEquals("bbitdiddle", store.getAuthor(1));
+        assertEquals(d2.getEpochSecond(), store.getEpochSecond(1));
+        assertEquals(tweet1.getText(), store.getText(0));
+        assertEquals(tweet2, store.get(1));
+        assertEquals(tweet2.toString(), store.get(1).toString());
+    }
+
+    @Test
+    public void testGrowsPastCapacity() {
+        TweetStore store = new TweetStore(1);
+        for (int i = 0; i < 1000; i++) {
+            Instant time = i == 500 ? d1.plusNanos(7) : d1.plusSeconds(i);
+            store.add(new Tweet(i, "user" + (i % 10), "tweet number " + i, time));
+        }
+        assertEquals(1000, store.size());
+        assertEquals(10, store.authorCount());
+        assertEquals("tweet number 999", store.getText(999));
+        assertEquals(d1.plusNanos(7), store.getTimestamp(500));
+        assertEquals(d1.plusSeconds(499), store.getTimestamp(499));
+    }
+
+    @Test
+    public void testUsableByFilterAndExtract() {
+        List<Tweet> store = TweetStore.copyOf(Arrays.asList(tweet1, tweet2));
+        assertEquals(Arrays.asList(tweet2), Filter.writtenBy(store, "bbitdiddle"));
+        assertEquals(new Timespan(d1, d2), Extract.getTimespan(store));
+    }
+}
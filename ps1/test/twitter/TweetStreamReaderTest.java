@@ -0,0 +1,250 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.json.JsonException;
+
+import org.junit.Test;
+
+public class TweetStreamReaderTest {
+
+    /*
+     * Testing strategy:
+     *   array: empty, one tweet, several tweets
+     *   author field: nested user.screen_name, literal "user.screen_name" key
+     *   other fields: absent, scalar, nested objects/arrays (must be skipped)
+     *   file input: one mapped window, many windows with multi-byte characters
+     *               straddling window boundaries; same tweets as
+     *               TweetReader.readTweetsFromWeb on a file: URL
+     *   parallel decode: fewer tweets than one chunk, many chunks; text with
+     *                    braces, brackets and escaped quotes; array elements
+     *                    that are numbers, strings, literals or arrays; missing,
+     *                    doubled, leading or trailing commas; data before or
+     *                    after the array, including a second array
+     */
+
+    private static final String SAMPLE = "["
+            + "{\"id\": 1, \"user\": {\"screen_name\": \"alyssa\", \"followers\": [1, 2, {\"x\": 3}]},"
+            + " \"text\": \"is it reasonable to talk about rivest so much?\","
+            + " \"entities\": {\"hashtags\": []}, \"retweeted\": false,"
+            + " \"created_at\": \"Wed Feb 17 10:00:00 +0000 2016\"},"
+            + "{\"created_at\": \"Wed Feb 17 11:00:00 +0000 2016\", \"id\": 720000000000000002,"
+            + " \"user.screen_name\": \"bbitdiddle\", \"text\": \"rivest talk in 30 minutes #hype\"}"
+            + "]";
+
+    @Test
+    public void testStreamTweetsEmptyArray() {
+        try (Stream<Tweet> tweets = TweetStreamReader.streamTweets(new StringReader("[]"))) {
+            assertEquals(0, tweets.count());
+        }
+    }
+
+    @Test
+    public void testStreamTweetsSeveralTweets() {
+        List<Tweet> tweets;
+        try (Stream<Tweet> stream = TweetStreamReader.streamTweets(new StringReader(SAMPLE))) {
+            tweets = stream.collect(Collectors.toList());
+        }
+        assertEquals(2, tweets.size());
+
+        Tweet first = tweets.get(0);
+        assertEquals(1, first.getId());
+        assertEquals("alyssa", first.getAuthor());
+        assertEquals("is it reasonable to talk about rivest so much?", first.getText());
+        assertEquals(Instant.parse("2016-02-17T10:00:00Z"), first.getTimestamp());
+
+        Tweet second = tweets.get(1);
+        assertEquals(720000000000000002L, second.getId());
+        assertEquals("bbitdiddle", second.getAuthor());
+        assertEquals(Instant.parse("2016-02-17T11:00:00Z"), second.getTimestamp());
+    }
+
+    @Test
+    public void testIterateTweetsIsLazy() {
+        Iterator<Tweet> tweets = TweetStreamReader.iterateTweets(new StringReader(SAMPLE));
+        assertTrue(tweets.hasNext());
+        assertEquals(1, tweets.next().getId());
+        assertTrue(tweets.hasNext());
+        tweets.next();
+        assertFalse(tweets.hasNext());
+    }
+
+    @Test
+    public void testReadTweetsFromFile() throws IOException {
+        Path file = Files.createTempFile("tweets", ".json");
+        try {
+            Files.write(file, SAMPLE.getBytes(StandardCharsets.UTF_8));
+            List<Tweet> tweets = TweetStreamReader.readTweetsFromFile(file);
+            assertEquals(2, tweets.size());
+            assertEquals("alyssa", tweets.get(0).getAuthor());
+            assertEquals("rivest talk in 30 minutes #hype", tweets.get(1).getText());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testFileMatchesTweetReader() throws IOException {
+        // the fixture is ASCII, since TweetReader decodes with the platform charset;
+        // non-ASCII text is written as JSON escapes
+        String json = "["
+                + "{\"id\": 1, \"user.screen_name\": \"alyssa\","
+                + " \"text\": \"is it reasonable to talk about rivest so much?\","
+                + " \"created_at\": \"Wed Feb 17 10:00:00 +0000 2016\"},\n"
+                + "{\"retweet_count\": 12, \"favorited\": false, \"in_reply_to\": null,"
+                + " \"created_at\": \"Wed Feb 17 11:30:45 -0500 2016\", \"id\": 720000000000000002,"
+                + " \"entities\": {\"hashtags\": {\"first\": \"hype\"}},"
+                + " \"text\": \"caf\\u00e9 \\\"talk\\\"\\n@Alyssa #hype\", \"user.screen_name\": \"bbitdiddle\"},\n"
+                + "{\"user.screen_name\": \"ben-b_1\", \"created_at\": \"Thu Feb 18 23:59:59 +0930 2016\","
+                + " \"text\": \"\", \"id\": 3}"
+                + "]";
+        Path file = Files.createTempFile("tweets", ".json");
+        try {
+            Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+            List<Tweet> expected = TweetReader.readTweetsFromWeb(file.toUri().toURL());
+            List<Tweet> actual = TweetStreamReader.readTweetsFromFile(file);
+            try (Stream<Tweet> stream = TweetStreamReader.streamTweetsFromFile(file)) {
+                assertEquals(actual, stream.collect(Collectors.toList()));
+            }
+
+            assertEquals(3, expected.size());
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getId(), actual.get(i).getId());
+                assertEquals(expected.get(i).getAuthor(), actual.get(i).getAuthor());
+                assertEquals(expected.get(i).getText(), actual.get(i).getText());
+                assertEquals(expected.get(i).getTimestamp(), actual.get(i).getTimestamp());
+            }
+            assertEquals("caf\u00e9 \"talk\"\n@Alyssa #hype", actual.get(1).getText());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testMappedFileReaderAcrossWindows() throws IOException {
+        String text = "caf\u00e9 \u20ac\u20ac \ud83d\ude00 na\u00efve r\u00e9sum\u00e9";
+        Path file = Files.createTempFile("mapped", ".txt");
+        try {
+            Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder decoded = new StringBuilder();
+            try (Reader reader = new MappedFileReader(file, 5)) {
+                char[] buffer = new char[1];
+                int n;
+                while ((n = reader.read(buffer, 0, buffer.length)) != -1) {
+                    decoded.append(buffer, 0, n);
+                }
+            }
+            assertEquals(text, decoded.toString());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testParallelDecodeMatchesSequential() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 1000; i++) {
+            if (i > 0) {
+                json.append(",\n");
+            }
+            json.append("{\"id\": ").append(i)
+                .append(", \"user\": {\"screen_name\": \"user").append(i % 17).append("\"}")
+                .append(", \"text\": \"{[not \\\"json\\\"]} #").append(i).append("\"")
+                .append(", \"entities\": {\"urls\": [{\"u\": \"}\"}]}")
+                .append(", \"created_at\": \"Wed Feb 17 10:00:00 +0000 2016\"}");
+        }
+        json.append("]");
+
+        List<Tweet> sequential = new ArrayList<>();
+        Iterator<Tweet> it = TweetStreamReader.iterateTweets(new StringReader(json.toString()));
+        while (it.hasNext()) {
+            sequential.add(it.next());
+        }
+        List<Tweet> parallel = new ParallelTweetDecoder(new ForkJoinPool(4)).decode(json.toString());
+
+        assertEquals(1000, parallel.size());
+        assertEquals(sequential, parallel);
+        for (int i = 0; i < parallel.size(); i++) {
+            assertEquals(sequential.get(i).getText(), parallel.get(i).getText());
+            assertEquals(sequential.get(i).getAuthor(), parallel.get(i).getAuthor());
+        }
+        assertEquals("{[not \"json\"]} #7", parallel.get(7).getText());
+    }
+
+    @Test
+    public void testParallelDecodeEmptyAndSmall() {
+        ParallelTweetDecoder decoder = new ParallelTweetDecoder();
+        assertTrue(decoder.decode("[ ]").isEmpty());
+        assertEquals(2, decoder.decode(SAMPLE).size());
+    }
+
+    /*
+     * @return the tweets TweetStreamReader reads from json, or null if it
+     *         rejects json
+     */
+    private static List<Tweet> sequentialOrNull(String json) {
+        try (Stream<Tweet> tweets = TweetStreamReader.streamTweets(new StringReader(json))) {
+            return tweets.collect(Collectors.toList());
+        } catch (JsonException e) {
+            return null;
+        }
+    }
+
+    @Test
+    public void testParallelDecodeRejectsMalformedLikeSequential() {
+        ParallelTweetDecoder decoder = new ParallelTweetDecoder();
+        String tweets = SAMPLE.substring(1, SAMPLE.length() - 1); // two tweets, comma-separated
+        String tweet = tweets.substring(0, tweets.indexOf("},{") + 1);
+        String[] inputs = {
+            "[1, 2]",
+            "[\"tweet\"]",
+            "[true]",
+            "[null]",
+            "[[]]",
+            "[" + tweets + ", 3]",
+            "[" + tweet + tweet + "]",          // missing comma
+            "[" + tweet + ",, " + tweet + "]",  // doubled comma
+            "[" + tweet + ",]",                 // trailing comma
+            "[, " + tweet + "]",                // leading comma
+            "[ , ]",
+            "[" + tweet + "] [" + tweet + "]",  // a second array
+            "[" + tweet + "] trailing",
+            "[" + tweet + "]]",
+            "x [" + tweet + "]",
+            "",
+            "[" + tweet,
+        };
+        for (String input : inputs) {
+            assertNull("sequential accepted " + input, sequentialOrNull(input));
+            try {
+                decoder.decode(input);
+                fail("expected JsonException for " + input);
+            } catch (JsonException e) {
+                // expected
+            }
+        }
+
+        // whitespace around the array and between elements is fine
+        String spaced = " \n[ " + tweet + " ,\t" + tweet + " ]\r\n ";
+        assertEquals(sequentialOrNull(spaced), decoder.decode(spaced));
+        assertEquals(2, decoder.decode(spaced).size());
+    }
+}
@@ -0,0 +1,107 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Test;
+
+public class TweetTokenizerTest {
+
+    /*
+     * Testing strategy:
+     *   text: empty, only whitespace, tokens at start/end, several kinds of whitespace
+     *   mentions: at start, at end, preceded by username char (email), with
+     *             hyphen and underscore, bare "@", consecutive "@@"
+     *   hashtags: plain, preceded by letter, bare "#"
+     *   handler: scans whole text, stops early
+     *   lowercasing: ASCII, non-ASCII folded differently by String and by
+     *                Character (U+0130, word-final capital sigma)
+     */
+
+    /*
+     * Records every token as "kind:token".
+     */
+    private static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        TweetTokenizer.tokenize(text, new TweetTokenizer.Handler() {
+            @Override public boolean word(String t, int start, int end) {
+                tokens.add("w:" + t.substring(start, end));
+                return true;
+            }
+            @Override public boolean mention(String t, int start, int end) {
+                tokens.add("@:" + t.substring(start, end));
+                return true;
+            }
+            @Override public boolean hashtag(String t, int start, int end) {
+                tokens.add("#:" + t.substring(start, end));
+                return true;
+            }
+        });
+        return tokens;
+    }
+
+    @Test
+    public void testEmptyAndWhitespace() {
+        assertTrue(tokens("").isEmpty());
+        assertTrue(tokens(" \t\n ").isEmpty());
+    }
+
+    @Test
+    public void testWords() {
+        assertEquals(Arrays.asList("w:rivest", "w:talk", "w:in", "w:30"), tokens("  rivest\ttalk\r\nin 30 "));
+    }
+
+    @Test
+    public void testMentions() {
+        assertEquals(Arrays.asList("@:Bob_1-x", "w:@Bob_1-x!"), tokens("@Bob_1-x!"));
+        assertEquals(Arrays.asList("w:mail", "w:bitdiddle@mit.edu"), tokens("mail bitdiddle@mit.edu"));
+        assertEquals(Arrays.asList("w:@", "@:b", "w:@@b"), tokens("@ @@b"));
+    }
+
+    @Test
+    public void testHashtags() {
+        assertEquals(Arrays.asList("#:hype", "w:#hype", "w:a#b", "w:#"), tokens("#hype a#b #"));
+    }
+
+    @Test
+    public void testHandlerStopsScan() {
+        List<String> seen = new ArrayList<>();
+        boolean finished = TweetTokenizer.tokenize("one two three", new TweetTokenizer.Handler() {
+            @Override public boolean word(String t, int start, int end) {
+                seen.add(t.substring(start, end));
+                return seen.size() < 2;
+            }
+        });
+        assertFalse(finished);
+        assertEquals(Arrays.asList("one", "two"), seen);
+    }
+
+    @Test
+    public void testRegionEqualsLowerCase() {
+        String lower = TweetTokenizer.lowerCase("Obama");
+        assertTrue(TweetTokenizer.regionEqualsLowerCase("hi OBAMA!", 3, 8, lower));
+        assertFalse(TweetTokenizer.regionEqualsLowerCase("hi OBAMA!", 3, 9, lower));
+    }
+
+    @Test
+    public void testRegionEqualsLowerCaseNonAscii() {
+        // String.toLowerCase turns U+0130 into "i" + U+0307, Character.toLowerCase into "i"
+        String text = "in \u0130STANBUL";
+        String lower = TweetTokenizer.lowerCase("\u0130stanbul");
+        assertEquals(text.substring(3).toLowerCase(Locale.ROOT), lower);
+        assertTrue(TweetTokenizer.regionEqualsLowerCase(text, 3, text.length(), lower));
+        assertFalse(TweetTokenizer.regionEqualsLowerCase(text, 3, text.length(), "istanbul"));
+
+        // a word-final capital sigma lowercases to a final sigma
+        String word = "\u039f\u0394\u039f\u03a3";
+        assertTrue(TweetTokenizer.regionEqualsLowerCase(word, 0, 4, "\u03bf\u03b4\u03bf\u03c2"));
+        assertFalse(TweetTokenizer.regionEqualsLowerCase(word, 0, 4, "\u03bf\u03b4\u03bf\u03c3"));
+    }
+}
@@ -0,0 +1,162 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class WhoToFollowTest {
+
+    /*
+     * Testing strategy:
+     *   user: not in graph, follows nobody, follows users with no other
+     *         followers, shares followees with several users, already
+     *         follows some candidates
+     *   k: 0, < candidates, > candidates
+     *   hubs: no sampling (fanout above every degree), sampled (fanout 1, 3)
+     *   single queries and recommendAll agree with a nested-set reference,
+     *   also when single queries run on several threads at once
+     */
+
+    private static FollowsGraph graph(String... edges) {
+        FollowsGraph.Builder builder = new FollowsGraph.Builder();
+        for (String edge : edges) {
+            String[] users = edge.split("->");
+            builder.addFollows(users[0], users[1]);
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void testSmall() {
+        FollowsGraph g = graph("me->a", "me->b", "me->x",
+                "x->a", "x->b", "y->a", "y->b", "z->b", "lonely->c");
+        WhoToFollow wtf = new WhoToFollow(g);
+        assertEquals(Arrays.asList("y", "z"), wtf.recommend("me", 5));
+        assertEquals(Arrays.asList("y"), wtf.recommend("me", 1));
+        assertEquals(Arrays.asList(), wtf.recommend("me", 0));
+        assertEquals(Arrays.asList("me", "y", "z"), wtf.recommend("x", 5));
+        assertEquals(Arrays.asList(), wtf.recommend("lonely", 5));
+        assertEquals(Arrays.asList(), wtf.recommend("a", 5));
+        assertEquals(Arrays.asList(), wtf.recommend("nobody", 5));
+    }
+
+    @Test
+    public void testRandomMatchesReference() {
+        Random random = new Random(19);
+        Map<String, Set<String>> map = new HashMap<>();
+        for (int u = 0; u < 1500; u++) {
+            Set<String> follows = new HashSet<>();
+            for (int e = random.nextInt(10); e > 0; e--) {
+                int v = (int) Math.abs(random.nextGaussian() * 150) % 1500;
+                if (v != u) {
+                    follows.add("u" + v);
+                }
+            }
+            map.put("u" + u, follows);
+        }
+        FollowsGraph g = FollowsGraph.fromMap(map);
+        WhoToFollow wtf = new WhoToFollow(g, Integer.MAX_VALUE);
+        WhoToFollow.Batch batch = wtf.recommendAll(10, new ForkJoinPool(4));
+
+        for (String user : map.keySet()) {
+            List<String> expected = reference(map, user, 10);
+            assertEquals(user, expected, wtf.recommend(user, 10));
+            assertEquals(user, expected, batch.recommendations(user));
+            assertTrue(batch.latencyNanos(user) >= 0);
+        }
+        assertTrue(batch.latencyNanosAt(0.5) <= batch.latencyNanosAt(1.0));
+    }
+
+    @Test
+    public void testConcurrentQueries() throws InterruptedException, ExecutionException {
+        Map<String, Set<String>> map = new HashMap<>();
+        for (int u = 0; u < 300; u++) {
+            map.put("u" + u, new HashSet<>(Arrays.asList("u" + (u * 7 % 300), "u" + (u * 13 % 300), "u" + (u % 10))));
+            map.get("u" + u).remove("u" + u);
+        }
+        WhoToFollow wtf = new WhoToFollow(FollowsGraph.fromMap(map));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> checks = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                checks.add(executor.submit(() -> {
+                    for (String user : map.keySet()) {
+                        if (!reference(map, user, 5).equals(wtf.recommend(user, 5))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> check : checks) {
+                assertTrue(check.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSampledHubs() {
+        // everyone follows the hub; me also follows a
+        List<String> edges = new ArrayList<>(Arrays.asList("me->hub", "me->a", "f->a"));
+        for (int i = 0; i < 100; i++) {
+            edges.add("f" + i + "->hub");
+        }
+        FollowsGraph g = graph(edges.toArray(new String[0]));
+        for (int fanout : new int[] { 1, 3 }) {
+            // at most fanout followers sampled through each of me's two followees
+            List<String> recommended = new WhoToFollow(g, fanout).recommend("me", 200);
+            assertTrue(recommended.size() <= 2 * fanout);
+            for (String user : recommended) {
+                assertTrue(user, user.startsWith("f"));
+            }
+        }
+        assertEquals(101, new WhoToFollow(g, 101).recommend("me", 200).size());
+    }
+
+    /*
+     * Two-hop candidates of user by shared followees, computed with sets.
+     */
+    private static List<String> reference(Map<String, Set<String>> map, String user, int k) {
+        Map<String, Integer> shared = new HashMap<>();
+        Set<String> follows = map.get(user);
+        for (Map.Entry<String, Set<String>> other : map.entrySet()) {
+            String candidate = other.getKey();
+            if (candidate.equals(user) || follows.contains(candidate)) {
+                continue;
+            }
+            int count = 0;
+            for (String followee : other.getValue()) {
+                if (follows.contains(followee)) {
+                    count++;
+                }
+            }
+            if (count > 0) {
+                shared.put(candidate, count);
+            }
+        }
+        List<String> ranked = new ArrayList<>(shared.keySet());
+        ranked.sort((a, b) -> shared.get(a).equals(shared.get(b))
+                ? a.compareTo(b)
+                : shared.get(b) - shared.get(a));
+        return ranked.subList(0, Math.min(k, ranked.size()));
+    }
+}
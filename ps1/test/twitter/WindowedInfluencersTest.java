@@ -0,0 +1,136 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class WindowedInfluencersTest {
+
+    /*
+     * Testing strategy:
+     *   tweets: in order, out of order within the ring, older than the ring,
+     *           repeated evidence in one bucket and across buckets
+     *   clock: advanced by tweets, by advanceTo, jumping past the whole ring
+     *   eviction: queried before, partway through and after the evicted counts
+     *             are subtracted
+     *   window: one bucket, partial, whole ring, longer than the ring
+     *   agrees with a rescan of the tweets in the window on a random stream
+     */
+
+    private static final Instant t0 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static Tweet tweet(long id, String author, String text, long minutes) {
+        return new Tweet(id, author, text, t0.plus(Duration.ofMinutes(minutes)));
+    }
+
+    @Test
+    public void testSlidingWindow() {
+        WindowedInfluencers ranking = new WindowedInfluencers(Duration.ofMinutes(10), 6);
+        assertEquals(Arrays.asList(), ranking.influencers(3));
+
+        ranking.accept(tweet(1, "a", "@bob @bob", 0));
+        ranking.accept(tweet(2, "b", "@bob", 1));
+        ranking.accept(tweet(3, "a", "@bob again", 5)); // same bucket, same pair
+        ranking.accept(tweet(4, "c", "@carol", 30));
+        ranking.accept(tweet(5, "d", "@carol", 31));
+        ranking.accept(tweet(6, "e", "@carol @dave", 55));
+        ranking.accept(tweet(7, "f", "@dave", 20)); // out of order, still in ring
+
+        assertEquals(Arrays.asList("carol", "bob", "dave"), ranking.influencers(5));
+        assertEquals(Arrays.asList("carol", "dave"), ranking.influencers(Duration.ofMinutes(10), 5));
+        assertEquals(Arrays.asList("carol", "dave"), ranking.influencers(Duration.ofMinutes(30), 5));
+        assertEquals(Arrays.asList("carol", "bob", "dave"), ranking.influencers(Duration.ofHours(3), 5));
+        assertEquals(Arrays.asList("carol"), ranking.influencers(1));
+
+        // bob's bucket [0, 10) leaves the ring when the clock reaches minute 60
+        ranking.advanceTo(t0.plus(Duration.ofMinutes(60)));
+        assertEquals(Arrays.asList("carol", "dave"), ranking.influencers(5));
+        ranking.accept(tweet(8, "g", "@bob", 1)); // too old
+        assertEquals(Arrays.asList("carol", "dave"), ranking.influencers(5));
+
+        ranking.advanceTo(t0.plus(Duration.ofDays(1)));
+        assertEquals(Arrays.asList(), ranking.influencers(5));
+    }
+
+    @Test
+    public void testQueriesDuringEviction() {
+        WindowedInfluencers ranking = new WindowedInfluencers(Duration.ofMinutes(10), 3);
+        for (int i = 0; i < 100; i++) {
+            ranking.accept(tweet(i, "fan" + i, "@star @user" + i, i % 30));
+        }
+        assertEquals(Arrays.asList("star", "user0"), ranking.influencers(2));
+
+        // every bucket leaves the ring; a few new mentions subtract only part of them
+        ranking.advanceTo(t0.plus(Duration.ofMinutes(100)));
+        ranking.accept(tweet(100, "a", "@bob", 100));
+        ranking.accept(tweet(101, "b", "@bob @carol", 101));
+        assertEquals(Arrays.asList("bob"), ranking.influencers(Duration.ofMinutes(10), 1));
+        assertEquals(Arrays.asList("bob", "carol"), ranking.influencers(5));
+
+        ranking.accept(tweet(102, "c", "@carol", 102));
+        assertEquals(Arrays.asList("bob", "carol"), ranking.influencers(Duration.ofMinutes(30), 5));
+    }
+
+    @Test
+    public void testRandomStreamMatchesRescan() {
+        Random random = new Random(21);
+        final int buckets = 12;
+        WindowedInfluencers ranking = new WindowedInfluencers(Duration.ofMinutes(5), buckets);
+        List<Tweet> tweets = new ArrayList<>();
+        long minute = 0;
+        long latest = 0;
+        for (int i = 0; i < 3000; i++) {
+            minute += random.nextInt(3) == 0 ? 1 : 0;
+            long at = Math.max(0, minute - random.nextInt(4)); // slightly out of order
+            Tweet tweet = tweet(i, "u" + random.nextInt(30), "@u" + random.nextInt(30) + " @u" + random.nextInt(30), at);
+            tweets.add(tweet);
+            ranking.accept(tweet);
+            latest = Math.max(latest, at);
+
+            if (i % 250 == 249) {
+                for (int windowBuckets : new int[] { 1, 4, buckets }) {
+                    assertEquals(rescan(tweets, latest / 5, windowBuckets),
+                            ranking.influencers(Duration.ofMinutes(5 * windowBuckets), 10));
+                }
+            }
+        }
+    }
+
+    /*
+     * Top 10 of the newest windowBuckets buckets, by distinct (author,
+     * mentioned) pairs per bucket, recomputed from scratch.
+     */
+    private static List<String> rescan(List<Tweet> tweets, long newest, int windowBuckets) {
+        Map<String, Integer> scores = new HashMap<>();
+        for (long b = newest - windowBuckets + 1; b <= newest; b++) {
+            List<Tweet> inBucket = new ArrayList<>();
+            for (Tweet tweet : tweets) {
+                long minutes = Duration.between(t0, tweet.getTimestamp()).toMinutes();
+                if (minutes / 5 == b) {
+                    inBucket.add(tweet);
+                }
+            }
+            for (Set<String> follows : SocialNetwork.guessFollowsGraph(inBucket).values()) {
+                for (String user : follows) {
+                    scores.merge(user, 1, Integer::sum);
+                }
+            }
+        }
+        List<String> ranked = new ArrayList<>(scores.keySet());
+        ranked.sort((a, c) -> scores.get(a).equals(scores.get(c)) ? a.compareTo(c) : scores.get(c) - scores.get(a));
+        return ranked.subList(0, Math.min(10, ranked.size()));
+    }
+}